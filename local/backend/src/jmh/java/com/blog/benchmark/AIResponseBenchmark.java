@@ -0,0 +1,83 @@
+package com.blog.benchmark;
+
+import com.blog.client.VllmClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI对话响应解析：非流式响应转Map并取出回复，以及流式响应逐块解析
+ *
+ * 直接调用 VllmClient 中 AIServiceImpl#chat / streamChat 使用的解析方法。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AIResponseBenchmark {
+    
+    /**
+     * 回复字符数（流式响应按每块2个字符切分）
+     */
+    @Param({"200", "2000"})
+    public int replyChars;
+    
+    private ObjectMapper objectMapper;
+    
+    private byte[] completion;
+    
+    private String[] chunks;
+    
+    @Setup
+    public void setup() {
+        objectMapper = BenchmarkData.objectMapper();
+        completion = BenchmarkData.chatCompletionResponse(replyChars);
+        chunks = new String[replyChars / 2];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = "data: " + BenchmarkData.chatCompletionChunk(i % 2 == 0 ? "缓存" : " the");
+        }
+    }
+    
+    @Benchmark
+    public Map<String, Object> completion() {
+        Map<String, Object> result = VllmClient.readMap(objectMapper, completion);
+        Map<String, Object> reply = VllmClient.firstMessage(result);
+        Map<String, Object> data = new HashMap<>();
+        data.put("message", reply.get("content"));
+        data.put("usage", result.get("usage"));
+        return data;
+    }
+    
+    /**
+     * 解析一次完整的流式回复（全部数据块）并拼接内容
+     */
+    @Benchmark
+    public String stream() throws IOException {
+        StringBuilder reply = new StringBuilder();
+        for (String line : chunks) {
+            JsonNode chunk = objectMapper.readTree(VllmClient.ssePayload(line));
+            String content = VllmClient.deltaContent(chunk);
+            if (content != null) {
+                reply.append(content);
+            }
+        }
+        return reply.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package com.blog.benchmark;
+
+import com.blog.dto.ArticleListItem;
+import com.blog.dto.CommentNode;
+import com.blog.entity.Article;
+import com.blog.entity.Comment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BeanUtils.copyProperties 在列表转换和评论树组装中的开销，
+ * 以手写拷贝作为对照
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanCopyBenchmark {
+    
+    /**
+     * 列表页大小
+     */
+    @Param({"20"})
+    public int pageSize;
+    
+    private List<Article> articles;
+    
+    @Setup
+    public void setup() {
+        articles = BenchmarkData.articles(pageSize, 200);
+    }
+    
+    /**
+     * 与 ArticleServiceImpl 的列表转换相同
+     */
+    @Benchmark
+    public List<ArticleListItem> listItemsBeanUtils() {
+        List<ArticleListItem> items = new ArrayList<>(articles.size());
+        for (Article article : articles) {
+            ArticleListItem item = new ArticleListItem();
+            BeanUtils.copyProperties(article, item);
+            items.add(item);
+        }
+        return items;
+    }
+    
+    @Benchmark
+    public List<ArticleListItem> listItemsManual() {
+        List<ArticleListItem> items = new ArrayList<>(articles.size());
+        for (Article article : articles) {
+            ArticleListItem item = new ArticleListItem();
+            item.setId(article.getId());
+            item.setTitle(article.getTitle());
+            item.setSummary(article.getSummary());
+            item.setCategory(article.getCategory());
+            item.setTags(article.getTags());
+            item.setViewCount(article.getViewCount());
+            item.setCreatedAt(article.getCreatedAt());
+            items.add(item);
+        }
+        return items;
+    }
+    
+    /**
+     * 与 CommentServiceImpl#loadThread 相同的一次遍历组装（不含用户信息查询）
+     */
+    @Benchmark
+    public List<CommentNode> commentTree(CommentRows rows) {
+        Map<Long, CommentNode> nodes = new HashMap<>(rows.comments.size() * 2);
+        List<CommentNode> roots = new ArrayList<>();
+        for (Comment comment : rows.comments) {
+            CommentNode node = new CommentNode();
+            BeanUtils.copyProperties(comment, node);
+            nodes.put(comment.getId(), node);
+            CommentNode parent = comment.getParentId() == null ? null : nodes.get(comment.getParentId());
+            if (parent != null) {
+                parent.getReplies().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        Collections.reverse(roots);
+        return roots;
+    }
+    
+    @State(Scope.Benchmark)
+    public static class CommentRows {
+        
+        /**
+         * 单篇文章的评论数
+         */
+        @Param({"1000", "10000"})
+        public int count;
+        
+        private List<Comment> comments;
+        
+        @Setup
+        public void setup() {
+            comments = BenchmarkData.comments(count, 1L);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.blog.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比两次JMH运行结果（-rf json 输出）
+ *
+ * 用法：BenchmarkCompare &lt;基线.json&gt; &lt;本次.json&gt; [阈值百分比，默认5]
+ * 逐项输出得分和每次操作分配的字节数（需 -prof gc）的变化；
+ * 变差超过阈值且超出两次误差范围的记为回退，存在回退时以状态码1退出。
+ * 输出只用ASCII字符，便于在CI日志中直接查看。
+ */
+public final class BenchmarkCompare {
+    
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    
+    private BenchmarkCompare() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BenchmarkCompare <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+        
+        int regressions = 0;
+        System.out.printf("%-72s %8s %14s %14s %9s %12s %12s %9s%n",
+                "Benchmark", "Unit", "Baseline", "Current", "Change", "B/op(base)", "B/op(cur)", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            JsonNode cur = entry.getValue();
+            JsonNode curMetric = cur.path("primaryMetric");
+            if (base == null) {
+                System.out.printf("%-72s %8s %14s %14.3f %9s%n", entry.getKey(), curMetric.path("scoreUnit").asText(),
+                        "-", curMetric.path("score").asDouble(), "new");
+                continue;
+            }
+            JsonNode baseMetric = base.path("primaryMetric");
+            double baseScore = baseMetric.path("score").asDouble();
+            double curScore = curMetric.path("score").asDouble();
+            double change = change(baseScore, curScore);
+            // 吞吐量模式越大越好，其余模式（耗时）越小越好
+            double worse = "thrpt".equals(cur.path("mode").asText()) ? -change : change;
+            double noise = error(baseMetric) + error(curMetric);
+            boolean regressed = worse > threshold && Math.abs(curScore - baseScore) > noise;
+            if (regressed) {
+                regressions++;
+            }
+            
+            double baseAlloc = alloc(base);
+            double curAlloc = alloc(cur);
+            System.out.printf("%-72s %8s %14.3f %14.3f %+8.1f%% %12s %12s %9s%s%n",
+                    entry.getKey(), curMetric.path("scoreUnit").asText(), baseScore, curScore, change,
+                    format(baseAlloc), format(curAlloc),
+                    Double.isNaN(baseAlloc) || Double.isNaN(curAlloc) ? "" : String.format("%+.1f%%", change(baseAlloc, curAlloc)),
+                    regressed ? "  << REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-72s %s%n", key, "missing");
+            }
+        }
+        
+        System.out.printf("%n%d regression(s), threshold %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * 以“基准方法名 + 参数”作为对比的键
+     */
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String benchmark = result.path("benchmark").asText().replace("com.blog.benchmark.", "");
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            String key = params.isEmpty() ? benchmark : benchmark + params.toString().replace(" ", "");
+            results.put(key, result);
+        }
+        return results;
+    }
+    
+    private static double alloc(JsonNode result) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOC_METRIC)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+    
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(Double.NaN);
+        return Double.isNaN(error) ? 0 : error;
+    }
+    
+    private static double change(double base, double current) {
+        return base == 0 ? 0 : (current - base) / base * 100;
+    }
+    
+    private static String format(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.0f", value);
+    }
+}
@@ -0,0 +1,201 @@
+package com.blog.benchmark;
+
+import com.blog.entity.Article;
+import com.blog.entity.Comment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试用的合成数据
+ *
+ * 固定随机种子，同样的参数每次生成完全相同的语料，保证不同提交之间的结果可比。
+ */
+public final class BenchmarkData {
+    
+    public static final long SEED = 20240601L;
+    
+    public static final String[] CATEGORIES = {"后端", "前端", "数据库", "运维", "算法", "人工智能", "随笔", "工具"};
+    
+    public static final String[] TAGS = {
+            "Java", "Spring", "MyBatis", "MySQL", "Redis", "Docker", "Nginx", "Linux", "Vue", "TypeScript",
+            "JVM", "并发", "缓存", "索引", "事务", "分布式", "微服务", "消息队列", "性能优化", "安全",
+            "JWT", "Kubernetes", "Git", "Maven", "Python", "vLLM", "大模型", "推理", "检索", "全文索引",
+            "网络", "HTTP", "gzip", "监控", "日志", "测试", "设计模式", "重构", "架构", "读书"
+    };
+    
+    /**
+     * 高频词：中英混排，中文部分按二元组分词，英文部分按单词分词
+     */
+    private static final String[] COMMON_WORDS = {
+            "虚拟线程", "连接池", "数据库", "索引", "查询", "缓存", "命中率", "延迟", "吞吐量", "序列化",
+            "反序列化", "压缩", "分页", "游标", "排序", "事务", "锁", "并发", "线程", "内存",
+            "垃圾回收", "分配", "对象", "字符串", "请求", "响应", "服务", "接口", "配置", "部署",
+            "Spring", "MyBatis", "Jackson", "Tomcat", "HikariCP", "JVM", "JIT", "GC", "SQL", "HTTP",
+            "the", "query", "index", "cache", "latency", "thread", "pool", "request", "response", "bytes"
+    };
+    
+    private static final String HANZI = "的一是在不了有和人这中大为上个国我以要他时来用们生到作地于出就分对成会可主发年动同工也能下过子说产种面而方后多定行学法所民得经十三之进着等部度家电力里如水化高自二理起小物现实加量都两体制机当使点从业本去把性好应开它合还因由其些然前外天政四日那社义事平形相全表间样与关各重新线内数正心反你明看原又么利比或但质气第向道命此变条只没结解问意建月公无系军很情者最立代想已通并提直题党程展五果料象员革位入常文总次品式活设及管特件长求老头基资边流路级少图山统接知较将组见计别她手角期根论运农指几九区强放决西被干做必战先回则任取据处理";
+    
+    /**
+     * 词表：高频词在前，其后是随机生成的长尾词，按近似Zipf分布取词，
+     * 检索时既有命中大多数文章的常见词，也有只命中少量文章的罕见词
+     */
+    private static final String[] VOCABULARY = vocabulary(4000);
+    
+    private BenchmarkData() {
+    }
+    
+    /**
+     * 与Spring Boot默认配置一致的ObjectMapper（注册JavaTimeModule，日期输出为ISO字符串）
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+    
+    /**
+     * 生成文章，ID从1开始递增，创建时间随ID递增
+     *
+     * @param count        文章数
+     * @param contentChars 每篇正文的大致字符数
+     */
+    public static List<Article> articles(int count, int contentChars) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 8, 0);
+        List<Article> articles = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Article article = new Article();
+            article.setId((long) i);
+            article.setTitle(sentence(random, 4 + random.nextInt(6)));
+            article.setContent(text(random, contentChars));
+            article.setSummary(sentence(random, 12));
+            article.setAuthorId(1L + random.nextInt(20));
+            article.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            article.setTags(tags(random));
+            // 约5%为草稿
+            article.setStatus(random.nextInt(20) == 0 ? 0 : 1);
+            article.setViewCount(random.nextInt(100_000));
+            article.setCreatedAt(base.plusMinutes(i * 37L));
+            article.setUpdatedAt(base.plusMinutes(i * 37L + random.nextInt(10_000)));
+            article.setDeleted(0);
+            articles.add(article);
+        }
+        return articles;
+    }
+    
+    /**
+     * 生成同一篇文章下的评论，ID正序；约30%为顶层评论，其余回复更早的评论
+     */
+    public static List<Comment> comments(int count, long articleId) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Comment comment = new Comment();
+            comment.setId((long) i);
+            comment.setArticleId(articleId);
+            comment.setUserId(1L + random.nextInt(500));
+            comment.setContent(sentence(random, 6 + random.nextInt(20)));
+            comment.setParentId(i == 1 || random.nextInt(10) < 3 ? null : 1L + random.nextInt(i - 1));
+            comment.setStatus(1);
+            comment.setCreatedAt(base.plusSeconds(i * 90L));
+            comment.setUpdatedAt(comment.getCreatedAt());
+            comment.setDeleted(0);
+            comments.add(comment);
+        }
+        return comments;
+    }
+    
+    /**
+     * vLLM非流式响应（OpenAI兼容格式）
+     */
+    public static byte[] chatCompletionResponse(int replyChars) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String reply = text(random, replyChars).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        String json = "{\"id\":\"chatcmpl-9f2c1e\",\"object\":\"chat.completion\",\"created\":1717200000,"
+                + "\"model\":\"Qwen3-4B-I-chat\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\","
+                + "\"content\":\"" + reply + "\"},\"logprobs\":null,\"finish_reason\":\"stop\",\"stop_reason\":null}],"
+                + "\"usage\":{\"prompt_tokens\":412,\"total_tokens\":" + (412 + replyChars / 2)
+                + ",\"completion_tokens\":" + replyChars / 2 + "},\"prompt_logprobs\":null}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * vLLM流式响应中的一个增量数据块（data: 之后的部分）
+     */
+    public static String chatCompletionChunk(String delta) {
+        return "{\"id\":\"chatcmpl-9f2c1e\",\"object\":\"chat.completion.chunk\",\"created\":1717200000,"
+                + "\"model\":\"Qwen3-4B-I-chat\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + delta
+                + "\"},\"logprobs\":null,\"finish_reason\":null}]}";
+    }
+    
+    /**
+     * 按词频排名取词（0为最常见）
+     */
+    public static String word(int rank) {
+        return VOCABULARY[rank];
+    }
+    
+    public static String sentence(SplittableRandom random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = VOCABULARY[(int) (VOCABULARY.length * Math.pow(random.nextDouble(), 3))];
+            if (builder.length() > 0 && isAscii(word.charAt(0)) && isAscii(builder.charAt(builder.length() - 1))) {
+                builder.append(' ');
+            }
+            builder.append(word);
+        }
+        return builder.toString();
+    }
+    
+    private static String text(SplittableRandom random, int chars) {
+        StringBuilder builder = new StringBuilder(chars + 64);
+        while (builder.length() < chars) {
+            if (random.nextInt(8) == 0) {
+                builder.append("\n\n## ").append(sentence(random, 3)).append("\n\n");
+            }
+            builder.append(sentence(random, 8 + random.nextInt(12))).append("。");
+        }
+        return builder.toString();
+    }
+    
+    private static String tags(SplittableRandom random) {
+        int count = 1 + random.nextInt(4);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            // 靠前的标签更常用
+            builder.append(TAGS[(int) (TAGS.length * Math.pow(random.nextDouble(), 2))]);
+        }
+        return builder.toString();
+    }
+    
+    private static String[] vocabulary(int tail) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] words = new String[COMMON_WORDS.length + tail];
+        System.arraycopy(COMMON_WORDS, 0, words, 0, COMMON_WORDS.length);
+        for (int i = COMMON_WORDS.length; i < words.length; i++) {
+            int length = 2 + random.nextInt(2);
+            StringBuilder word = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                word.append(HANZI.charAt(random.nextInt(HANZI.length())));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+    
+    private static boolean isAscii(char c) {
+        return c < 0x80;
+    }
+}
@@ -0,0 +1,67 @@
+package com.blog.benchmark;
+
+import com.blog.entity.Article;
+import com.blog.search.FacetIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分类/标签筛选在不同文章规模下的查询耗时（不含建索引）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class FacetBenchmark {
+    
+    /**
+     * 文章总数
+     */
+    @Param({"10000", "100000"})
+    public int articles;
+    
+    private FacetIndex facetIndex;
+    
+    private final List<String> twoTags = Arrays.asList("Java", "缓存");
+    
+    @Setup
+    public void setup() {
+        facetIndex = new FacetIndex();
+        // 筛选索引不读取正文
+        for (Article article : BenchmarkData.articles(articles, 0)) {
+            facetIndex.put(article);
+        }
+    }
+    
+    @Benchmark
+    public FacetIndex.Hits filterCategoryAndTags() {
+        return facetIndex.query("后端", twoTags, 0, 20);
+    }
+    
+    @Benchmark
+    public FacetIndex.Hits filterDeepPage() {
+        return facetIndex.query(null, Collections.singletonList("Java"), 2000, 20);
+    }
+    
+    @Benchmark
+    public Map<String, Object> facetCounts() {
+        return facetIndex.facets("后端", Collections.singletonList("Java"), 50);
+    }
+}
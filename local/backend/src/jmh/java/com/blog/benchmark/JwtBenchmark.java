@@ -0,0 +1,65 @@
+package com.blog.benchmark;
+
+import com.blog.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil：签发、完整验签（未命中缓存）与已验签缓存命中
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    
+    private JwtUtil jwtUtil;
+    
+    private String token;
+    
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "blog_secret_key_change_in_production");
+        ReflectionTestUtils.setField(jwtUtil, "expire", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheSize", 10_000);
+        ReflectionTestUtils.setField(jwtUtil, "cacheTtl", 600_000L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("42", "user");
+        jwtUtil.verify(token);
+    }
+    
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken("42", "user");
+    }
+    
+    /**
+     * 未命中缓存时的路径：Base64解码、JSON解析和HMAC-SHA512校验
+     */
+    @Benchmark
+    public String parse() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+    
+    /**
+     * 命中已验签缓存：只计算Token的SHA-256并查表
+     */
+    @Benchmark
+    public JwtUtil.VerifiedToken verifyCached() {
+        return jwtUtil.verify(token);
+    }
+}
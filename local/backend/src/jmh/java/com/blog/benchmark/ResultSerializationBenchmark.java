@@ -0,0 +1,123 @@
+package com.blog.benchmark;
+
+import com.blog.cache.PreSerializedJson;
+import com.blog.common.Result;
+import com.blog.dto.ArticleListItem;
+import com.blog.entity.Article;
+import com.blog.service.impl.ArticleServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应序列化：Result 包装 + Jackson，以及文章详情的预序列化模板
+ *
+ * 输出写入复用的缓冲区，只统计序列化本身的耗时和分配。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultSerializationBenchmark {
+    
+    /**
+     * 文章正文字符数
+     */
+    @Param({"2000", "20000"})
+    public int contentChars;
+    
+    @Param({"20"})
+    public int pageSize;
+    
+    private ObjectMapper objectMapper;
+    
+    private Article article;
+    
+    private List<ArticleListItem> page;
+    
+    private PreSerializedJson template;
+    
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+    
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = BenchmarkData.objectMapper();
+        List<Article> articles = BenchmarkData.articles(pageSize, contentChars);
+        article = articles.get(0);
+        page = new ArrayList<>(pageSize);
+        for (Article source : articles) {
+            ArticleListItem item = new ArticleListItem();
+            BeanUtils.copyProperties(source, item);
+            page.add(item);
+        }
+        template = ArticleServiceImpl.compileDetail(objectMapper, article, 6);
+    }
+    
+    @Benchmark
+    public int listPage() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, Result.success(page));
+        return out.size();
+    }
+    
+    /**
+     * 详情接口原先的路径：拷贝实体、包装Result、Jackson序列化
+     */
+    @Benchmark
+    public int detailJackson() throws IOException {
+        out.reset();
+        Article copy = new Article();
+        BeanUtils.copyProperties(article, copy);
+        copy.setViewCount(article.getViewCount() + 1);
+        objectMapper.writeValue(out, Result.success(copy));
+        return out.size();
+    }
+    
+    @Benchmark
+    public int detailJacksonGzip() throws IOException {
+        out.reset();
+        Article copy = new Article();
+        BeanUtils.copyProperties(article, copy);
+        copy.setViewCount(article.getViewCount() + 1);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            objectMapper.writeValue(gzip, Result.success(copy));
+        }
+        return out.size();
+    }
+    
+    /**
+     * 预序列化模板：只渲染浏览量和时间戳
+     */
+    @Benchmark
+    public int detailTemplate() throws IOException {
+        out.reset();
+        template.bind(article.getViewCount() + 1, System.currentTimeMillis()).writeTo(out, false);
+        return out.size();
+    }
+    
+    @Benchmark
+    public int detailTemplateGzip() throws IOException {
+        out.reset();
+        template.bind(article.getViewCount() + 1, System.currentTimeMillis()).writeTo(out, true);
+        return out.size();
+    }
+}
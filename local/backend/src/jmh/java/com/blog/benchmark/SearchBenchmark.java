@@ -0,0 +1,153 @@
+package com.blog.benchmark;
+
+import com.blog.entity.Article;
+import com.blog.search.ArticleSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全文检索在不同文章规模下的查询耗时（不含建索引），以及索引之前的LIKE查询作为对照
+ *
+ * LIKE对照在H2内存库（MySQL兼容模式）上执行与 {@code ArticleServiceImpl} 相同条件的分页查询，
+ * 与MySQL一样需要扫描全部已发布文章的标题和正文。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    
+    /**
+     * 文章总数
+     */
+    @Param({"10000", "50000"})
+    public int articles;
+    
+    @Param({"300"})
+    public int contentChars;
+    
+    private ArticleSearchIndex searchIndex;
+    
+    private Connection connection;
+    
+    private PreparedStatement likeQuery;
+    
+    private final String rareTerm = BenchmarkData.word(2000);
+    
+    @Setup
+    public void setup() throws SQLException {
+        List<Article> data = BenchmarkData.articles(articles, contentChars);
+        searchIndex = new ArticleSearchIndex();
+        for (Article article : data) {
+            searchIndex.put(article);
+        }
+        
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-like;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE articles (id BIGINT PRIMARY KEY, title VARCHAR(255), content TEXT, "
+                    + "category VARCHAR(50), status INT, created_at DATETIME, deleted INT, "
+                    + "KEY idx_status_created (status, deleted, created_at, id))");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO articles (id, title, content, category, status, created_at, deleted) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (Article article : data) {
+                insert.setLong(1, article.getId());
+                insert.setString(2, article.getTitle());
+                insert.setString(3, article.getContent());
+                insert.setString(4, article.getCategory());
+                insert.setInt(5, article.getStatus());
+                insert.setTimestamp(6, Timestamp.valueOf(article.getCreatedAt()));
+                insert.setInt(7, article.getDeleted());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        likeQuery = connection.prepareStatement("SELECT id, title, content FROM articles WHERE deleted = 0 AND status = 1 "
+                + "AND (? IS NULL OR category = ?) AND (title LIKE ? OR content LIKE ?) ORDER BY created_at DESC LIMIT 10");
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+    
+    /**
+     * 高频中文词：几乎每篇文章都命中，需要为全部候选打分
+     */
+    @Benchmark
+    public ArticleSearchIndex.Hits searchCommonTerm() {
+        return searchIndex.search("连接池", null, 0, 10);
+    }
+    
+    /**
+     * 长尾中文词：只命中少量文章
+     */
+    @Benchmark
+    public ArticleSearchIndex.Hits searchRareTerm() {
+        return searchIndex.search(rareTerm, null, 0, 10);
+    }
+    
+    @Benchmark
+    public ArticleSearchIndex.Hits searchMixedWithCategory() {
+        return searchIndex.search("虚拟线程 JVM", "后端", 0, 10);
+    }
+    
+    /**
+     * 单字查询：走一元倒排表
+     */
+    @Benchmark
+    public ArticleSearchIndex.Hits searchSingleChar() {
+        return searchIndex.search("池", null, 0, 10);
+    }
+    
+    @Benchmark
+    public int likeCommonTerm() throws SQLException {
+        return like("连接池", null);
+    }
+    
+    @Benchmark
+    public int likeRareTerm() throws SQLException {
+        return like(rareTerm, null);
+    }
+    
+    @Benchmark
+    public int likeWithCategory() throws SQLException {
+        return like("虚拟线程", "后端");
+    }
+    
+    private int like(String keyword, String category) throws SQLException {
+        likeQuery.setString(1, category);
+        likeQuery.setString(2, category);
+        likeQuery.setString(3, "%" + keyword + "%");
+        likeQuery.setString(4, "%" + keyword + "%");
+        int rows = 0;
+        try (ResultSet rs = likeQuery.executeQuery()) {
+            while (rs.next()) {
+                rows += rs.getString(3).length();
+            }
+        }
+        return rows;
+    }
+}
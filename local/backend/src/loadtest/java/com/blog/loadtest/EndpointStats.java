@@ -0,0 +1,131 @@
+package com.blog.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 单个接口的压测统计
+ *
+ * 保存全部延迟样本（微秒），结束时排序计算精确分位数。
+ * 延迟从计划发出时间算起，发压端来不及按时发出时排队的时间也计入，避免协调遗漏。
+ */
+public class EndpointStats {
+    
+    private final String name;
+    
+    private long[] samples = new long[1024];
+    
+    private int size;
+    
+    private long ok;
+    
+    private long failed;
+    
+    private long errors;
+    
+    private long dropped;
+    
+    /**
+     * 响应体字节数合计（按传输编码计，即gzip压缩后的大小）
+     */
+    private long bytes;
+    
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+    
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 记录一次完成的请求
+     *
+     * @param latencyNanos 从计划发出到完成的耗时
+     * @param status       HTTP状态码
+     * @param success      是否视为成功（2xx/304且业务码为200）
+     */
+    public synchronized void record(long latencyNanos, int status, boolean success) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = latencyNanos / 1000;
+        statuses.merge(status, 1L, Long::sum);
+        if (success) {
+            ok++;
+        } else {
+            failed++;
+        }
+    }
+    
+    /**
+     * 记录一次响应体的字节数
+     */
+    public synchronized void recordBytes(long length) {
+        bytes += length;
+    }
+    
+    /**
+     * 连接失败、超时等没有拿到响应的请求
+     */
+    public synchronized void recordError(long latencyNanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = latencyNanos / 1000;
+        errors++;
+    }
+    
+    /**
+     * 进行中请求已达上限，发压端直接放弃的请求
+     */
+    public synchronized void recordDropped() {
+        dropped++;
+    }
+    
+    /**
+     * 汇总，延迟单位为毫秒
+     *
+     * @param seconds 统计时长，用于计算吞吐量
+     */
+    public synchronized Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", (long) size + dropped);
+        summary.put("ok", ok);
+        summary.put("failed", failed);
+        summary.put("errors", errors);
+        summary.put("dropped", dropped);
+        summary.put("throughput", round(ok / seconds));
+        summary.put("meanMs", size == 0 ? 0.0 : round(Arrays.stream(sorted).average().orElse(0) / 1000));
+        summary.put("p50Ms", percentile(sorted, 0.50));
+        summary.put("p90Ms", percentile(sorted, 0.90));
+        summary.put("p99Ms", percentile(sorted, 0.99));
+        summary.put("p999Ms", percentile(sorted, 0.999));
+        summary.put("maxMs", size == 0 ? 0.0 : round(sorted[size - 1] / 1000.0));
+        long responses = ok + failed;
+        summary.put("avgBytes", responses == 0 ? 0L : bytes / responses);
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count));
+        summary.put("statuses", statusCounts);
+        return summary;
+    }
+    
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(sorted.length * quantile) - 1;
+        return round(sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1000.0);
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,237 @@
+package com.blog.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 开环发压
+ *
+ * 请求按泊松过程到达（指数分布的到达间隔），到达时间只由目标速率决定，与服务端响应快慢无关；
+ * 每个请求在独立的虚拟线程中发出。服务端变慢时进行中的请求会堆积，而不是像闭环压测那样自动降速。
+ */
+public class LoadGenerator {
+    
+    private final HttpClient client;
+    
+    private final List<Scenario> scenarios;
+    
+    private final int totalWeight;
+    
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    
+    private final Semaphore inFlight;
+    
+    private final SplittableRandom random = new SplittableRandom(42);
+    
+    /**
+     * @param scenarios   请求类型及权重
+     * @param maxInFlight 进行中请求上限，超出的请求记为 dropped（防止压测端自身耗尽内存）
+     */
+    public LoadGenerator(List<Scenario> scenarios, int maxInFlight) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.scenarios = scenarios;
+        this.totalWeight = scenarios.stream().mapToInt(Scenario::getWeight).sum();
+        this.inFlight = new Semaphore(maxInFlight);
+        for (Scenario scenario : scenarios) {
+            stats.put(scenario.getName(), new EndpointStats(scenario.getName()));
+            if (scenario.isStream()) {
+                stats.put(scenario.getName() + ":ttft", new EndpointStats(scenario.getName() + ":ttft"));
+            }
+        }
+    }
+    
+    /**
+     * 预热后按目标速率发压，预热期间的请求不计入统计
+     *
+     * @param rate     每秒请求数
+     * @param warmup   预热时长
+     * @param duration 统计时长
+     * @param drain    结束后等待进行中请求完成的最长时间
+     */
+    public void run(double rate, Duration warmup, Duration duration, Duration drain) throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        double meanIntervalNanos = 1_000_000_000.0 / rate;
+        double next = start;
+        while (next < end) {
+            next += -Math.log(1 - random.nextDouble()) * meanIntervalNanos;
+            long intended = (long) next;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario scenario = pick();
+            HttpRequest request = scenario.getRequest().apply(random);
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    stats.get(scenario.getName()).recordDropped();
+                }
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    send(scenario, request, intended, measured);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(drain.toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+    
+    public List<EndpointStats> getStats() {
+        return new ArrayList<>(stats.values());
+    }
+    
+    private Scenario pick() {
+        int value = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            value -= scenario.getWeight();
+            if (value < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+    
+    private void send(Scenario scenario, HttpRequest request, long intended, boolean measured) {
+        EndpointStats endpoint = stats.get(scenario.getName());
+        try {
+            if (scenario.isStream()) {
+                sendStream(scenario, request, intended, measured, endpoint);
+                return;
+            }
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long latency = System.nanoTime() - intended;
+            if (measured) {
+                endpoint.record(latency, response.statusCode(), succeeded(response));
+                endpoint.recordBytes(response.body().length);
+            }
+        } catch (IOException e) {
+            if (measured) {
+                endpoint.recordError(System.nanoTime() - intended);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * 读完整个SSE流；首个带内容的数据块到达时间单独记为 ttft
+     */
+    private void sendStream(Scenario scenario, HttpRequest request, long intended, boolean measured,
+                            EndpointStats endpoint) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        boolean done = false;
+        long ttft = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                if (ttft < 0 && line.contains("\"content\"")) {
+                    ttft = System.nanoTime() - intended;
+                }
+                if (line.contains("[DONE]")) {
+                    done = true;
+                }
+            }
+        }
+        long latency = System.nanoTime() - intended;
+        if (measured) {
+            endpoint.record(latency, response.statusCode(), response.statusCode() == 200 && done);
+            if (ttft >= 0) {
+                stats.get(scenario.getName() + ":ttft").record(ttft, response.statusCode(), true);
+            }
+        }
+    }
+    
+    /**
+     * 2xx/304，且JSON响应的业务码为200（接口出错时HTTP状态仍为200）；gzip响应只看状态码
+     */
+    private static boolean succeeded(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status == 304) {
+            return true;
+        }
+        if (status < 200 || status >= 300) {
+            return false;
+        }
+        if (response.headers().firstValue("Content-Encoding").isPresent()) {
+            return true;
+        }
+        return new String(response.body(), StandardCharsets.UTF_8).contains("\"code\":200");
+    }
+    
+    /**
+     * 一类请求
+     */
+    public static final class Scenario {
+        
+        private final String name;
+        
+        private final int weight;
+        
+        private final boolean stream;
+        
+        private final Function<SplittableRandom, HttpRequest> request;
+        
+        /**
+         * @param name    接口名称（报告中的一行）
+         * @param weight  在请求组合中的权重
+         * @param stream  是否为SSE流式响应
+         * @param request 按随机数生成本次请求
+         */
+        public Scenario(String name, int weight, boolean stream, Function<SplittableRandom, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.stream = stream;
+            this.request = request;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getWeight() {
+            return weight;
+        }
+        
+        public boolean isStream() {
+            return stream;
+        }
+        
+        public Function<SplittableRandom, HttpRequest> getRequest() {
+            return request;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.blog.loadtest;
+
+import com.blog.BlogApplication;
+import com.blog.service.FacetService;
+import com.blog.service.SearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 端到端压测入口
+ *
+ * 默认在本进程内启动：H2（MySQL兼容模式）代替MySQL并写入压测数据，模拟vLLM代替推理服务，
+ * 以 loadtest profile 启动应用，然后按开环到达率发压，输出各接口的吞吐量与延迟分位数。
+ * 指定 --target 时只发压，不启动应用（目标需已有 load1 ~ loadN 用户和对应文章）。
+ *
+ * 参数（均为 --key=value）：
+ * <pre>
+ * rate            每秒请求数，默认100
+ * duration        统计时长，默认60s；warmup 预热时长，默认10s；drain 结束后等待进行中请求的时长，默认30s
+ * mix             请求组合及权重，默认 detail:45,list:15,search:10,filter:5,trending:5,comments:8,login:4,chat:4,stream:4；
+ *                 另有 page-exact、page-cached、page-none：按对应的 count 方式分页浏览 GET /api/articles；
+ *                 chat-unique：问题均不重复的非流式对话，绕过响应缓存，每个请求都转发到上游；
+ *                 list-cursor：游标分页列表 GET /api/articles/list；list-all：一次取回全部文章（含正文），
+ *                 即游标分页之前全表返回的列表接口，作为对照
+ * max-in-flight   压测端进行中请求上限，默认5000
+ * articles        文章数，默认2000；content-chars 正文字符数，默认2000；users 用户数，默认200；comments 每篇平均评论数，默认5
+ * ttft            模拟vLLM的首token延迟，默认150ms；token-interval token间隔，默认20ms；reply-tokens 回复token数，默认64
+ * target          已运行的服务地址，如 http://localhost:8080
+ * report-dir      报告目录，默认 target/loadtest
+ * </pre>
+ * 其余参数（如 --spring.threads.virtual.enabled=true）原样传给应用。
+ */
+public final class LoadTest {
+    
+    private static final String DB_URL = "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    
+    private static final String DEFAULT_MIX = "detail:45,list:15,search:10,filter:5,trending:5,comments:8,login:4,chat:4,stream:4";
+    
+    /**
+     * 常见问题：重复提问会命中AI响应缓存
+     */
+    private static final String[] FAQ = {
+            "什么是虚拟线程？", "连接池大小怎么设置？", "如何排查慢查询？", "缓存和数据库怎么保持一致？",
+            "什么是索引覆盖？", "JVM 内存怎么调优？", "怎么做接口限流？", "gzip 压缩值得开启吗？"
+    };
+    
+    private LoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            String key = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : null;
+            if (key != null && !key.contains(".")) {
+                options.put(key, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+        
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        Duration duration = duration(options.getOrDefault("duration", "60s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration drain = duration(options.getOrDefault("drain", "30s"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "5000"));
+        int articles = Integer.parseInt(options.getOrDefault("articles", "2000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "200"));
+        File reportDir = new File(options.getOrDefault("report-dir", "target/loadtest"));
+        
+        MockVllmServer mock = null;
+        ConfigurableApplicationContext context = null;
+        String target = options.get("target");
+        try {
+            if (target == null) {
+                try (Connection connection = DriverManager.getConnection(DB_URL, "sa", "")) {
+                    LoadTestData.seed(connection, users, articles,
+                            Integer.parseInt(options.getOrDefault("content-chars", "2000")),
+                            Integer.parseInt(options.getOrDefault("comments", "5")));
+                }
+                mock = new MockVllmServer(0, duration(options.getOrDefault("ttft", "150ms")).toMillis(),
+                        duration(options.getOrDefault("token-interval", "20ms")).toMillis(),
+                        Integer.parseInt(options.getOrDefault("reply-tokens", "64")));
+                mock.start();
+                context = startApplication(appArgs, mock.getPort());
+                target = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+                awaitIndexes(context);
+            }
+            
+            LoadGenerator generator = new LoadGenerator(
+                    scenarios(target, options.getOrDefault("mix", DEFAULT_MIX), articles, users), maxInFlight);
+            System.out.printf("压测开始: %s, %.0f req/s, 预热 %ds, 统计 %ds%n", target, rate,
+                    warmup.getSeconds(), duration.getSeconds());
+            LocalDateTime startedAt = LocalDateTime.now();
+            generator.run(rate, warmup, duration, drain);
+            
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startedAt", startedAt.toString());
+            report.put("target", target);
+            report.put("options", options);
+            report.put("appArgs", appArgs);
+            List<Map<String, Object>> endpoints = new ArrayList<>();
+            for (EndpointStats stats : generator.getStats()) {
+                endpoints.add(stats.summary(duration.toMillis() / 1000.0));
+            }
+            report.put("endpoints", endpoints);
+            print(endpoints);
+            if (mock != null) {
+                report.put("mockVllm", mock.stats());
+                System.out.println("模拟vLLM: " + mock.stats());
+            }
+            reportDir.mkdirs();
+            File file = new File(reportDir, "report.json");
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+            System.out.println("报告已写入 " + file.getAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (mock != null) {
+                mock.close();
+            }
+        }
+        System.exit(0);
+    }
+    
+    private static ConfigurableApplicationContext startApplication(List<String> appArgs, int mockPort) {
+        List<String> args = new ArrayList<>(appArgs);
+        addDefault(args, "spring.datasource.url", DB_URL);
+        addDefault(args, "ai.vllm.url", "http://127.0.0.1:" + mockPort + "/v1/chat/completions");
+        addDefault(args, "server.port", "0");
+        SpringApplication application = new SpringApplication(BlogApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        return application.run(args.toArray(new String[0]));
+    }
+    
+    /**
+     * 命令行中未指定时才追加（同名参数出现两次时Spring会把值拼接起来）
+     */
+    private static void addDefault(List<String> args, String key, String value) {
+        if (args.stream().noneMatch(arg -> arg.startsWith("--" + key + "="))) {
+            args.add("--" + key + "=" + value);
+        }
+    }
+    
+    /**
+     * 等待启动后的全文索引和分类/标签索引重建完成，否则检索会退回数据库查询
+     */
+    private static void awaitIndexes(ConfigurableApplicationContext context) throws InterruptedException {
+        SearchService searchService = context.getBean(SearchService.class);
+        FacetService facetService = context.getBean(FacetService.class);
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (!(searchService.isReady() && facetService.isReady()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+    }
+    
+    private static List<LoadGenerator.Scenario> scenarios(String target, String mix, int articles, int users) {
+        AtomicLong messages = new AtomicLong();
+        List<LoadGenerator.Scenario> scenarios = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            String name = parts[0];
+            int weight = Integer.parseInt(parts[1]);
+            if (weight <= 0) {
+                continue;
+            }
+            switch (name) {
+                case "detail":
+                    // 访问集中在少量热门文章
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles/" + skewed(random, articles))));
+                    break;
+                case "list":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles?page=" + skewed(random, 20) + "&size=10")));
+                    break;
+                case "list-cursor":
+                    // 首页占一半，其余按分类浏览
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles/list?size=20"
+                                    + (random.nextBoolean() ? "&category=" + encode(pick(random, LoadTestData.CATEGORIES)) : ""))));
+                    break;
+                case "list-all":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles?page=1&count=none&size=" + articles)));
+                    break;
+                case "page-exact":
+                case "page-cached":
+                case "page-none":
+                    // 一半按分类，页码覆盖到较深的位置
+                    String count = name.substring("page-".length());
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles?size=10&count=" + count + "&page=" + skewed(random, Math.max(1, articles / 80))
+                                    + (random.nextBoolean() ? "&category=" + encode(pick(random, LoadTestData.CATEGORIES)) : ""))));
+                    break;
+                case "search":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles/search?keyword=" + encode(pick(random, LoadTestData.WORDS)))));
+                    break;
+                case "filter":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles/filter?category=" + encode(pick(random, LoadTestData.CATEGORIES))
+                                    + "&tags=" + encode(pick(random, LoadTestData.TAGS)))));
+                    break;
+                case "trending":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/articles/trending?limit=10")));
+                    break;
+                case "comments":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> get(target,
+                            "/api/comments/article/" + skewed(random, articles))));
+                    break;
+                case "login":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> post(target,
+                            "/api/auth/login", "{\"username\":\"load" + (1 + random.nextInt(users))
+                                    + "\",\"password\":\"" + LoadTestData.PASSWORD + "\"}", "application/json")));
+                    break;
+                case "chat":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> post(target,
+                            "/api/ai/chat", chatBody(random, messages), "application/json")));
+                    break;
+                case "chat-unique":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, false, random -> post(target,
+                            "/api/ai/chat", uniqueChatBody(random, messages), "application/json")));
+                    break;
+                case "stream":
+                    scenarios.add(new LoadGenerator.Scenario(name, weight, true, random -> post(target,
+                            "/api/ai/chat/stream", chatBody(random, messages), "text/event-stream")));
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的请求类型: " + name);
+            }
+        }
+        return scenarios;
+    }
+    
+    /**
+     * 六成为常见问题（可命中响应缓存），其余为不重复的问题
+     */
+    private static String chatBody(SplittableRandom random, AtomicLong messages) {
+        String message = random.nextInt(10) < 6
+                ? pick(random, FAQ)
+                : "请比较" + pick(random, LoadTestData.WORDS) + "和" + pick(random, LoadTestData.WORDS)
+                        + "（第" + messages.incrementAndGet() + "问）";
+        return "{\"message\":\"" + message + "\"}";
+    }
+    
+    private static String uniqueChatBody(SplittableRandom random, AtomicLong messages) {
+        return "{\"message\":\"请解释" + pick(random, LoadTestData.WORDS) + "（第" + messages.incrementAndGet() + "问）\"}";
+    }
+    
+    private static HttpRequest get(String target, String path) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .header("Accept-Encoding", "gzip")
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+    
+    private static HttpRequest post(String target, String path, String body, String accept) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .timeout(Duration.ofSeconds(180))
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+    
+    /**
+     * 1 ~ n，越小的值越常被选中（约20%的值承担约一半的请求）
+     */
+    private static int skewed(SplittableRandom random, int n) {
+        return 1 + (int) (n * Math.pow(random.nextDouble(), 2.3));
+    }
+    
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+    
+    private static void print(List<Map<String, Object>> endpoints) {
+        System.out.printf("%n%-14s %8s %8s %7s %7s %8s %9s %9s %9s %9s %9s %9s %11s%n", "endpoint", "requests", "ok",
+                "failed", "errors", "dropped", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)",
+                "bytes/resp");
+        for (Map<String, Object> row : endpoints) {
+            System.out.printf("%-14s %8d %8d %7d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %11d%n",
+                    row.get("endpoint"), row.get("requests"), row.get("ok"), row.get("failed"), row.get("errors"),
+                    row.get("dropped"), row.get("throughput"), row.get("p50Ms"), row.get("p90Ms"), row.get("p99Ms"),
+                    row.get("p999Ms"), row.get("maxMs"), row.get("avgBytes"));
+        }
+        System.out.println();
+    }
+}
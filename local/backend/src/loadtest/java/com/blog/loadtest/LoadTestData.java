@@ -0,0 +1,217 @@
+package com.blog.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * 压测数据：建表并写入用户、文章和评论
+ *
+ * 在应用启动前写入，搜索、分类/标签和热门索引在启动后的重建中即可读到全部数据。
+ * 随机种子固定，同样的参数每次生成相同的数据。
+ */
+public final class LoadTestData {
+    
+    public static final String PASSWORD = "loadtest123";
+    
+    public static final String[] CATEGORIES = {"后端", "前端", "数据库", "运维", "算法", "人工智能", "随笔", "工具"};
+    
+    public static final String[] TAGS = {
+            "Java", "Spring", "MyBatis", "MySQL", "Redis", "Docker", "Nginx", "Linux", "Vue", "TypeScript",
+            "JVM", "并发", "缓存", "索引", "事务", "分布式", "微服务", "性能优化", "安全", "大模型"
+    };
+    
+    /**
+     * 检索关键词，同时用作正文词表
+     */
+    public static final String[] WORDS = {
+            "虚拟线程", "连接池", "数据库", "索引", "查询", "缓存", "命中率", "延迟", "吞吐量", "序列化",
+            "压缩", "分页", "游标", "排序", "事务", "并发", "线程", "内存", "垃圾回收", "请求",
+            "响应", "部署", "监控", "限流", "熔断", "Spring", "MyBatis", "Tomcat", "JVM", "SQL"
+    };
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private LoadTestData() {
+    }
+    
+    /**
+     * @param users              用户数，用户名为 load1 ~ loadN，密码均为 {@link #PASSWORD}
+     * @param articles           文章数
+     * @param contentChars       每篇正文的大致字符数
+     * @param commentsPerArticle 每篇文章的平均评论数
+     */
+    public static void seed(Connection connection, int users, int articles, int contentChars,
+                            int commentsPerArticle) throws SQLException, IOException {
+        runScript(connection, "/loadtest/schema.sql");
+        SplittableRandom random = new SplittableRandom(20240601L);
+        LocalDateTime base = LocalDateTime.now().minusDays(365);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            seedUsers(connection, users, base);
+            seedArticles(connection, random, articles, users, contentChars, base);
+            seedComments(connection, random, articles, users, commentsPerArticle, base);
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private static void seedUsers(Connection connection, int users, LocalDateTime base) throws SQLException {
+        // 所有用户共用一个哈希，避免建数据时做上千次BCrypt
+        String hash = new BCryptPasswordEncoder(10).encode(PASSWORD);
+        String sql = "INSERT INTO users (username, email, password, status, role, created_at, updated_at, deleted) "
+                + "VALUES (?, ?, ?, 1, 'user', ?, ?, 0)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            Timestamp createdAt = Timestamp.valueOf(base);
+            for (int i = 1; i <= users; i++) {
+                statement.setString(1, "load" + i);
+                statement.setString(2, "load" + i + "@example.com");
+                statement.setString(3, hash);
+                statement.setTimestamp(4, createdAt);
+                statement.setTimestamp(5, createdAt);
+                statement.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+    
+    private static void seedArticles(Connection connection, SplittableRandom random, int articles, int users,
+                                     int contentChars, LocalDateTime base) throws SQLException {
+        String sql = "INSERT INTO articles (title, `content`, summary, author_id, category, tags, status, view_count, "
+                + "created_at, updated_at, deleted) VALUES (?, ?, ?, ?, ?, ?, 1, ?, ?, ?, 0)";
+        long step = Math.max(1, 365L * 24 * 60 / Math.max(1, articles));
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= articles; i++) {
+                Timestamp createdAt = Timestamp.valueOf(base.plusMinutes(i * step));
+                statement.setString(1, sentence(random, 4 + random.nextInt(5)));
+                statement.setString(2, text(random, contentChars));
+                statement.setString(3, sentence(random, 12));
+                statement.setLong(4, 1 + random.nextInt(users));
+                statement.setString(5, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                statement.setString(6, tags(random));
+                statement.setInt(7, random.nextInt(10_000));
+                statement.setTimestamp(8, createdAt);
+                statement.setTimestamp(9, createdAt);
+                statement.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+    
+    private static void seedComments(Connection connection, SplittableRandom random, int articles, int users,
+                                     int commentsPerArticle, LocalDateTime base) throws SQLException {
+        if (commentsPerArticle <= 0) {
+            return;
+        }
+        String sql = "INSERT INTO comments (article_id, user_id, `content`, parent_id, status, created_at, updated_at, deleted) "
+                + "VALUES (?, ?, ?, ?, 1, ?, ?, 0)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            long id = 0;
+            int pending = 0;
+            for (int article = 1; article <= articles; article++) {
+                int count = random.nextInt(commentsPerArticle * 2 + 1);
+                long first = id + 1;
+                for (int i = 0; i < count; i++) {
+                    id++;
+                    Timestamp createdAt = Timestamp.valueOf(base.plusMinutes(id));
+                    statement.setLong(1, article);
+                    statement.setLong(2, 1 + random.nextInt(users));
+                    statement.setString(3, sentence(random, 6 + random.nextInt(10)));
+                    // 约三成是对本文更早评论的回复
+                    if (id > first && random.nextInt(10) < 3) {
+                        statement.setLong(4, first + random.nextLong(id - first));
+                    } else {
+                        statement.setObject(4, null);
+                    }
+                    statement.setTimestamp(5, createdAt);
+                    statement.setTimestamp(6, createdAt);
+                    statement.addBatch();
+                    if (++pending % BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                    }
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+    
+    public static String sentence(SplittableRandom random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (builder.length() > 0 && word.charAt(0) < 0x80) {
+                builder.append(' ');
+            }
+            builder.append(word);
+        }
+        return builder.toString();
+    }
+    
+    private static String text(SplittableRandom random, int chars) {
+        StringBuilder builder = new StringBuilder(chars + 64);
+        while (builder.length() < chars) {
+            if (random.nextInt(8) == 0) {
+                builder.append("\n\n## ").append(sentence(random, 3)).append("\n\n");
+            }
+            builder.append(sentence(random, 8 + random.nextInt(12))).append("。");
+        }
+        return builder.toString();
+    }
+    
+    private static String tags(SplittableRandom random) {
+        int count = 1 + random.nextInt(3);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(TAGS[(int) (TAGS.length * Math.pow(random.nextDouble(), 2))]);
+        }
+        return builder.toString();
+    }
+    
+    private static void runScript(Connection connection, String resource) throws SQLException, IOException {
+        String script;
+        try (InputStream in = LoadTestData.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("找不到建表脚本: " + resource);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.split(";")) {
+                String trimmed = stripComments(sql).trim();
+                if (!trimmed.isEmpty()) {
+                    statement.execute(trimmed);
+                }
+            }
+        }
+    }
+    
+    private static String stripComments(String sql) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                builder.append(line).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,205 @@
+package com.blog.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模拟的OpenAI兼容推理服务（代替vLLM）
+ *
+ * 支持 POST /v1/chat/completions（流式与非流式）、GET /v1/models 和 GET /health。
+ * 首个token前等待 ttftMillis，之后每个token间隔 tokenIntervalMillis；非流式请求等待全部token生成后一次返回。
+ * 每个请求一个虚拟线程，并发不受线程数限制。
+ */
+public class MockVllmServer implements AutoCloseable {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private static final String[] TOKENS = {"缓存", "命中", "之后", "延迟", "明显", "下降", "，", "连接池", "不再", "排队", "。", " the", " pool"};
+    
+    private final HttpServer server;
+    
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private final long ttftMillis;
+    
+    private final long tokenIntervalMillis;
+    
+    private final int replyTokens;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    
+    private final LongAdder requests = new LongAdder();
+    
+    /**
+     * @param port                监听端口，0表示随机端口
+     * @param ttftMillis          首个token的延迟（模拟prefill），单位毫秒
+     * @param tokenIntervalMillis 相邻token的间隔（模拟decode），单位毫秒
+     * @param replyTokens         每次回复的token数
+     */
+    public MockVllmServer(int port, long ttftMillis, long tokenIntervalMillis, int replyTokens) throws IOException {
+        this.ttftMillis = ttftMillis;
+        this.tokenIntervalMillis = tokenIntervalMillis;
+        this.replyTokens = replyTokens;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 4096);
+        server.createContext("/v1/chat/completions", this::chatCompletions);
+        server.createContext("/v1/models", exchange -> writeJson(exchange, 200,
+                Map.of("object", "list", "data", new Object[]{Map.of("id", "mock-model", "object", "model")})));
+        server.createContext("/health", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(executor);
+    }
+    
+    /**
+     * 单独启动：MockVllmServer [端口] [首token延迟ms] [token间隔ms] [回复token数]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+        MockVllmServer server = new MockVllmServer(port,
+                args.length > 1 ? Long.parseLong(args[1]) : 150,
+                args.length > 2 ? Long.parseLong(args[2]) : 20,
+                args.length > 3 ? Integer.parseInt(args[3]) : 64);
+        server.start();
+        System.out.println("mock vLLM listening on http://127.0.0.1:" + server.getPort());
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("maxInFlight", maxInFlight.get());
+        stats.put("ttftMillis", ttftMillis);
+        stats.put("tokenIntervalMillis", tokenIntervalMillis);
+        stats.put("replyTokens", replyTokens);
+        return stats;
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private void chatCompletions(HttpExchange exchange) throws IOException {
+        requests.increment();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] request = body.readAllBytes();
+            JsonNode json = MAPPER.readTree(request);
+            // 按请求体长度粗略估算prompt token数
+            int promptTokens = Math.max(1, request.length / 4);
+            String model = json.path("model").asText("mock-model");
+            if (json.path("stream").asBoolean(false)) {
+                stream(exchange, model, promptTokens);
+            } else {
+                complete(exchange, model, promptTokens);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 客户端取消或断开
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+    
+    private void complete(HttpExchange exchange, String model, int promptTokens) throws IOException, InterruptedException {
+        Thread.sleep(ttftMillis + tokenIntervalMillis * (replyTokens - 1));
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < replyTokens; i++) {
+            content.append(TOKENS[i % TOKENS.length]);
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", "assistant");
+        message.put("content", content.toString());
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("message", message);
+        choice.put("finish_reason", "stop");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", "chatcmpl-mock");
+        response.put("object", "chat.completion");
+        response.put("model", model);
+        response.put("choices", new Object[]{choice});
+        response.put("usage", usage(promptTokens));
+        writeJson(exchange, 200, response);
+    }
+    
+    private void stream(HttpExchange exchange, String model, int promptTokens) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        Thread.sleep(ttftMillis);
+        for (int i = 0; i < replyTokens; i++) {
+            if (i > 0) {
+                Thread.sleep(tokenIntervalMillis);
+            }
+            Map<String, Object> delta = Map.of("content", TOKENS[i % TOKENS.length]);
+            Map<String, Object> choice = new LinkedHashMap<>();
+            choice.put("index", 0);
+            choice.put("delta", delta);
+            choice.put("finish_reason", null);
+            Map<String, Object> chunk = new LinkedHashMap<>();
+            chunk.put("id", "chatcmpl-mock");
+            chunk.put("object", "chat.completion.chunk");
+            chunk.put("model", model);
+            chunk.put("choices", new Object[]{choice});
+            writeEvent(out, MAPPER.writeValueAsString(chunk));
+        }
+        Map<String, Object> last = new LinkedHashMap<>();
+        last.put("id", "chatcmpl-mock");
+        last.put("object", "chat.completion.chunk");
+        last.put("model", model);
+        last.put("choices", new Object[0]);
+        last.put("usage", usage(promptTokens));
+        writeEvent(out, MAPPER.writeValueAsString(last));
+        writeEvent(out, "[DONE]");
+    }
+    
+    private Map<String, Object> usage(int promptTokens) {
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", replyTokens);
+        usage.put("total_tokens", promptTokens + replyTokens);
+        return usage;
+    }
+    
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+    
+    private static void writeJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+-- 压测用表结构：与 README 中的建表语句一致，去掉了 H2 不支持的表选项（ENGINE、COMMENT 等）
+
+CREATE TABLE `users` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `username` VARCHAR(50) NOT NULL UNIQUE,
+  `email` VARCHAR(100) NOT NULL UNIQUE,
+  `password` VARCHAR(255) NOT NULL,
+  `avatar` VARCHAR(255),
+  `status` INT DEFAULT 1,
+  `role` VARCHAR(20) DEFAULT 'user',
+  `created_at` DATETIME,
+  `updated_at` DATETIME,
+  `deleted` INT DEFAULT 0,
+  PRIMARY KEY (`id`)
+) ;
+
+-- 文章表
+CREATE TABLE `articles` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `title` VARCHAR(255) NOT NULL,
+  `content` TEXT NOT NULL,
+  `summary` VARCHAR(500),
+  `author_id` BIGINT NOT NULL,
+  `category` VARCHAR(50),
+  `tags` VARCHAR(255),
+  `status` INT DEFAULT 1,
+  `view_count` INT DEFAULT 0,
+  `created_at` DATETIME,
+  `updated_at` DATETIME,
+  `deleted` INT DEFAULT 0,
+  PRIMARY KEY (`id`),
+  KEY `idx_author_id` (`author_id`),
+  KEY `idx_category` (`category`),
+  KEY `idx_status_created` (`status`, `deleted`, `created_at`, `id`)
+) ;
+
+-- 评论表
+CREATE TABLE `comments` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `article_id` BIGINT NOT NULL,
+  `user_id` BIGINT NOT NULL,
+  `content` TEXT NOT NULL,
+  `parent_id` BIGINT,
+  `status` INT DEFAULT 1,
+  `created_at` DATETIME,
+  `updated_at` DATETIME,
+  `deleted` INT DEFAULT 0,
+  PRIMARY KEY (`id`),
+  KEY `idx_article_id` (`article_id`),
+  KEY `idx_user_id` (`user_id`)
+) ;
+
+-- AI对话消息表（ai.session.persist=true 时使用）
+CREATE TABLE `ai_chat_messages` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `session_id` VARCHAR(64) NOT NULL,
+  `owner` VARCHAR(80),
+  `role` VARCHAR(20) NOT NULL,
+  `content` TEXT NOT NULL,
+  `tokens` INT DEFAULT 0,
+  `created_at` DATETIME,
+  `deleted` INT DEFAULT 0,
+  PRIMARY KEY (`id`),
+  KEY `idx_session_id` (`session_id`)
+) ;
+
+-- 文章预渲染结果表（由后台渲染线程生成，与 articles 一对一）
+CREATE TABLE `article_renders` (
+  `article_id` BIGINT NOT NULL,
+  `content_hash` CHAR(32) NOT NULL,
+  `content_html` TEXT NOT NULL,
+  `toc` TEXT,
+  `word_count` INT DEFAULT 0,
+  `reading_minutes` INT DEFAULT 1,
+  `summary` VARCHAR(500),
+  `summary_source` VARCHAR(16) NOT NULL,
+  `rendered_at` DATETIME,
+  PRIMARY KEY (`article_id`),
+  KEY `idx_summary_source` (`summary_source`, `rendered_at`)
+) ;
@@ -0,0 +1,91 @@
+package com.blog.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的二级缓存实现，用于未部署Redis的环境和本地调试
+ *
+ * 超过容量上限时清理已过期的条目，仍然超限则拒绝写入。
+ */
+public class InMemoryRemoteCache implements RemoteCache {
+    
+    private final int maxSize;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public InMemoryRemoteCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    @Override
+    public String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expireAt < System.currentTimeMillis()) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+    
+    @Override
+    public void set(String key, String value, long ttlMillis) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            purgeExpired();
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        entries.put(key, new Entry(value, expireAt));
+    }
+    
+    @Override
+    public void delete(String key) {
+        entries.remove(key);
+    }
+    
+    @Override
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "memory");
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+    
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            if (it.next().expireAt < now) {
+                it.remove();
+            }
+        }
+    }
+    
+    private static final class Entry {
+        private final String value;
+        private final long expireAt;
+        
+        private Entry(String value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
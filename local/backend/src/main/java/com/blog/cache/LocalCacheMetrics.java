@@ -0,0 +1,57 @@
+package com.blog.cache;
+
+import com.blog.util.LocalCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 本地缓存的指标（cache.gets、cache.evictions、cache.size，标签 cache 为缓存名称）
+ *
+ * 指标注册表初始化时就会绑定MeterBinder，而缓存大多在各服务初始化时才创建，
+ * 因此这里只记下注册表，等所有单例创建完成后再为 {@link LocalCache#instances()} 注册指标。
+ */
+public class LocalCacheMetrics implements MeterBinder, SmartInitializingSingleton {
+    
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+    
+    private volatile boolean started;
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registries.add(registry);
+        if (started) {
+            bindCaches(registry);
+        }
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        started = true;
+        for (MeterRegistry registry : registries) {
+            bindCaches(registry);
+        }
+    }
+    
+    private static void bindCaches(MeterRegistry registry) {
+        for (LocalCache<?, ?> cache : LocalCache.instances()) {
+            FunctionCounter.builder("cache.gets", cache, LocalCache::getHitCount)
+                    .tag("cache", cache.getName()).tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", cache, LocalCache::getMissCount)
+                    .tag("cache", cache.getName()).tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", cache, LocalCache::getEvictionCount)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            Gauge.builder("cache.size", cache, LocalCache::size)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.blog.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 预序列化的JSON响应模板
+ *
+ * 将序列化结果在若干个动态数值字段（如浏览量、时间戳）处切分为固定片段，
+ * 每个片段同时保存原始字节和预压缩的 deflate 数据块。输出时按原样写出固定片段，
+ * 动态值以未压缩的 stored 块插入，拼成合法的 gzip 流，不再经过 Jackson 和压缩器。
+ */
+public final class PreSerializedJson {
+    
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    
+    /**
+     * BFINAL=1 的空 stored 块，结束 deflate 流
+     */
+    private static final byte[] FINAL_BLOCK = {0x01, 0x00, 0x00, (byte) 0xff, (byte) 0xff};
+    
+    private static final int STORED_BLOCK_HEADER = 5;
+    
+    private static final int GZIP_TRAILER = 8;
+    
+    private final Object version;
+    
+    private final byte[][] segments;
+    
+    private final byte[][] deflated;
+    
+    private final int segmentsLength;
+    
+    private final int deflatedLength;
+    
+    private PreSerializedJson(Object version, byte[][] segments, byte[][] deflated) {
+        this.version = version;
+        this.segments = segments;
+        this.deflated = deflated;
+        int plain = 0;
+        int compressed = 0;
+        for (int i = 0; i < segments.length; i++) {
+            plain += segments[i].length;
+            compressed += deflated[i].length;
+        }
+        this.segmentsLength = plain;
+        this.deflatedLength = compressed;
+    }
+    
+    /**
+     * 编译模板
+     *
+     * @param version          模板对应的数据版本（如最后修改时间），由调用方比较
+     * @param json             以占位值序列化得到的JSON
+     * @param slots            动态字段在JSON中的完整形式（如 "viewCount":-2147483648），按出现顺序排列，每个只出现一次
+     * @param compressionLevel 压缩级别（1-9）
+     */
+    public static PreSerializedJson compile(Object version, byte[] json, String[] slots, int compressionLevel) {
+        byte[][] segments = new byte[slots.length + 1][];
+        int from = 0;
+        for (int i = 0; i < slots.length; i++) {
+            byte[] slot = slots[i].getBytes(StandardCharsets.UTF_8);
+            int at = indexOf(json, slot, from);
+            if (at < 0) {
+                throw new IllegalArgumentException("占位字段不存在: " + slots[i]);
+            }
+            // 只替换数值部分，字段名留在固定片段中
+            int valueStart = at + slots[i].indexOf(':') + 1;
+            segments[i] = Arrays.copyOfRange(json, from, valueStart);
+            from = at + slot.length;
+        }
+        segments[slots.length] = Arrays.copyOfRange(json, from, json.length);
+        
+        byte[][] deflated = new byte[segments.length][];
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                deflated[i] = deflate(deflater, segments[i]);
+            }
+        } finally {
+            deflater.end();
+        }
+        return new PreSerializedJson(version, segments, deflated);
+    }
+    
+    /**
+     * 客户端是否接受gzip编码（gzip 或 * 且 q 不为0）
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim();
+            if (!"gzip".equalsIgnoreCase(coding) && !"*".equals(coding)) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") && Double.parseDouble(param.substring(2)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    public Object getVersion() {
+        return version;
+    }
+    
+    /**
+     * 绑定本次请求的动态值（顺序与编译时的 slots 一致）
+     */
+    public Bound bind(long... values) {
+        if (values.length != segments.length - 1) {
+            throw new IllegalArgumentException("动态值个数应为 " + (segments.length - 1));
+        }
+        byte[][] rendered = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            rendered[i] = Long.toString(values[i]).getBytes(StandardCharsets.US_ASCII);
+        }
+        return new Bound(rendered);
+    }
+    
+    /**
+     * 每个固定片段单独压缩为字节对齐、非结束的 deflate 块（SYNC_FLUSH），
+     * 各片段之间没有回溯引用，可以与 stored 块任意拼接
+     */
+    private static byte[] deflate(Deflater deflater, byte[] input) {
+        deflater.reset();
+        deflater.setInput(input);
+        byte[] buffer = new byte[Math.max(64, input.length / 2 + 64)];
+        int length = 0;
+        while (true) {
+            int n = deflater.deflate(buffer, length, buffer.length - length, Deflater.SYNC_FLUSH);
+            length += n;
+            if (length < buffer.length) {
+                break;
+            }
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+    
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * 绑定了动态值的一次响应
+     */
+    public final class Bound {
+        
+        private final byte[][] values;
+        
+        private final int valuesLength;
+        
+        private Bound(byte[][] values) {
+            this.values = values;
+            int length = 0;
+            for (byte[] value : values) {
+                length += value.length;
+            }
+            this.valuesLength = length;
+        }
+        
+        public int contentLength(boolean gzip) {
+            if (!gzip) {
+                return segmentsLength + valuesLength;
+            }
+            return GZIP_HEADER.length + deflatedLength + values.length * STORED_BLOCK_HEADER + valuesLength
+                    + FINAL_BLOCK.length + GZIP_TRAILER;
+        }
+        
+        public void writeTo(OutputStream out, boolean gzip) throws IOException {
+            if (!gzip) {
+                for (int i = 0; i < values.length; i++) {
+                    out.write(segments[i]);
+                    out.write(values[i]);
+                }
+                out.write(segments[values.length]);
+                return;
+            }
+            
+            CRC32 crc = new CRC32();
+            out.write(GZIP_HEADER);
+            for (int i = 0; i < values.length; i++) {
+                out.write(deflated[i]);
+                crc.update(segments[i]);
+                byte[] value = values[i];
+                // 未压缩的 stored 块：BFINAL=0/BTYPE=00，LEN 和 NLEN 小端序
+                out.write(0);
+                out.write(value.length & 0xff);
+                out.write((value.length >>> 8) & 0xff);
+                out.write(~value.length & 0xff);
+                out.write((~value.length >>> 8) & 0xff);
+                out.write(value);
+                crc.update(value);
+            }
+            out.write(deflated[values.length]);
+            crc.update(segments[values.length]);
+            out.write(FINAL_BLOCK);
+            writeIntLE(out, (int) crc.getValue());
+            writeIntLE(out, segmentsLength + valuesLength);
+        }
+        
+        private void writeIntLE(OutputStream out, int value) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >>> 8) & 0xff);
+            out.write((value >>> 16) & 0xff);
+            out.write((value >>> 24) & 0xff);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.blog.cache;
+
+import java.util.Map;
+
+/**
+ * 二级缓存接口（与Redis的GET / SET PX / DEL语义一致，值为字符串）
+ *
+ * 接入Redis时实现此接口并注册为Bean即可。
+ */
+public interface RemoteCache {
+    
+    /**
+     * 读取，不存在或已过期返回null
+     */
+    String get(String key);
+    
+    /**
+     * 写入并设置过期时间
+     *
+     * @param ttlMillis 过期时间，单位毫秒，<=0 表示不过期
+     */
+    void set(String key, String value, long ttlMillis);
+    
+    void delete(String key);
+    
+    /**
+     * 缓存统计
+     */
+    Map<String, Object> stats();
+}
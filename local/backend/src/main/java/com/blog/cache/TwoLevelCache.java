@@ -0,0 +1,121 @@
+package com.blog.cache;
+
+import com.blog.util.LocalCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 两级缓存：进程内L1（LocalCache） + 可选的共享L2（RemoteCache，JSON存储）
+ *
+ * 读取顺序为 L1 -> L2 -> loader，L1未命中时的加载（含读L2）按key单飞，
+ * 同一key的并发未命中只会有一次请求落到L2或数据库。L2读写失败只记录日志，不影响读取。
+ * 加载期间发生过失效时，从数据库读到的值既不写L1也不写L2，避免旧值在失效后被写回共享缓存。
+ *
+ * @param <V> 值类型
+ */
+@Slf4j
+public class TwoLevelCache<V> {
+    
+    private final String name;
+    
+    private final LocalCache<Long, V> local;
+    
+    private final RemoteCache remote;
+    
+    private final long remoteTtlMillis;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final Class<V> type;
+    
+    /**
+     * @param remote 二级缓存，为null时只使用L1
+     */
+    public TwoLevelCache(String name, LocalCache<Long, V> local, RemoteCache remote, long remoteTtlMillis,
+                         ObjectMapper objectMapper, Class<V> type) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.remoteTtlMillis = remoteTtlMillis;
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+    
+    public V get(Long id, Function<Long, V> loader) {
+        return local.get(id, key -> {
+            long generation = local.generation();
+            V value = readRemote(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null && local.generation() == generation) {
+                    writeRemote(key, value);
+                    // 检查与写入之间发生的失效可能先删后写，写入后再确认一次
+                    if (local.generation() != generation) {
+                        deleteRemote(key);
+                    }
+                }
+            }
+            return value;
+        });
+    }
+    
+    public void invalidate(Long id) {
+        // 先推进L1的失效代数再删L2，进行中的加载据此放弃写回
+        local.invalidate(id);
+        deleteRemote(id);
+    }
+    
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1", local.stats());
+        stats.put("l2", remote == null ? null : remote.stats());
+        return stats;
+    }
+    
+    private V readRemote(Long id) {
+        if (remote == null) {
+            return null;
+        }
+        try {
+            String json = remote.get(remoteKey(id));
+            return json == null ? null : objectMapper.readValue(json, type);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("二级缓存读取失败: {}", remoteKey(id), e);
+            return null;
+        }
+    }
+    
+    private void writeRemote(Long id, V value) {
+        if (remote == null) {
+            return;
+        }
+        try {
+            remote.set(remoteKey(id), objectMapper.writeValueAsString(value), remoteTtlMillis);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("二级缓存写入失败: {}", remoteKey(id), e);
+        }
+    }
+    
+    private void deleteRemote(Long id) {
+        if (remote == null) {
+            return;
+        }
+        try {
+            remote.delete(remoteKey(id));
+        } catch (RuntimeException e) {
+            log.warn("二级缓存删除失败: {}", remoteKey(id), e);
+        }
+    }
+    
+    private String remoteKey(Long id) {
+        return name + ":" + id;
+    }
+}
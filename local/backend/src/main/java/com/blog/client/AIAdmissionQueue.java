@@ -0,0 +1,234 @@
+package com.blog.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * vLLM请求准入队列
+ *
+ * 同时转发到vLLM的请求数不超过 max-in-flight（与vLLM的 max_num_seqs 保持一致），
+ * 超出的请求按用户/IP分队列排队，放行时在各队列之间轮转，避免单个用户占满引擎；
+ * 总排队数达到上限时立即拒绝，由调用方返回429。
+ */
+@Component
+public class AIAdmissionQueue {
+    
+    @Value("${ai.admission.max-in-flight:128}")
+    private int maxInFlight;
+    
+    @Value("${ai.admission.max-queue:256}")
+    private int maxQueue;
+    
+    @Value("${ai.admission.max-queue-per-client:8}")
+    private int maxQueuePerClient;
+    
+    @Value("${ai.admission.max-wait:60000}")
+    private long maxWait;
+    
+    /**
+     * 各客户端的等待队列，迭代顺序即轮转顺序
+     */
+    private final LinkedHashMap<String, Deque<Ticket>> queues = new LinkedHashMap<>();
+    
+    private int inFlight;
+    
+    private int queued;
+    
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalWaitMillis = new LongAdder();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+    
+    /**
+     * 申请一个执行名额
+     *
+     * @param clientKey 公平调度的分组键（用户ID或IP）
+     * @param onQueued  需要排队时回调当前排队位置（从1开始），可为null
+     * @return 获得名额后完成的Future；排队超时以 {@link TimeoutException} 异常完成，
+     *         调用方可 cancel 该Future放弃排队
+     * @throws AdmissionRejectedException 排队已满时立即抛出
+     */
+    public CompletableFuture<Permit> acquire(String clientKey, IntConsumer onQueued) {
+        Ticket ticket;
+        int position;
+        synchronized (this) {
+            if (inFlight < maxInFlight && queued == 0) {
+                inFlight++;
+                admitted.increment();
+                return CompletableFuture.completedFuture(new Permit());
+            }
+            Deque<Ticket> queue = queues.get(clientKey);
+            if (queued >= maxQueue || (queue != null && queue.size() >= maxQueuePerClient)) {
+                rejected.increment();
+                throw new AdmissionRejectedException("AI服务繁忙，请稍后重试", queued);
+            }
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(clientKey, queue);
+            }
+            ticket = new Ticket(clientKey);
+            queue.addLast(ticket);
+            queued++;
+            position = queued;
+        }
+        if (onQueued != null) {
+            onQueued.accept(position);
+        }
+        
+        ticket.future.orTimeout(maxWait, TimeUnit.MILLISECONDS).whenComplete((permit, e) -> {
+            if (e != null) {
+                // 超时或被取消：移出队列
+                if (e instanceof TimeoutException) {
+                    timedOut.increment();
+                }
+                remove(ticket);
+            }
+        });
+        return ticket.future;
+    }
+    
+    /**
+     * 当前排队数
+     */
+    public synchronized int queueDepth() {
+        return queued;
+    }
+    
+    /**
+     * 当前已准入、正在转发的请求数
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+    
+    /**
+     * 准入统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("maxInFlight", maxInFlight);
+            stats.put("inFlight", inFlight);
+            stats.put("queueDepth", queued);
+            stats.put("maxQueue", maxQueue);
+            stats.put("queuedClients", queues.size());
+        }
+        long admittedCount = admitted.sum();
+        stats.put("admitted", admittedCount);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("avgWaitMillis", admittedCount == 0 ? 0 : totalWaitMillis.sum() / admittedCount);
+        stats.put("maxWaitMillis", maxWaitMillis.get());
+        return stats;
+    }
+    
+    private void release() {
+        List<Ticket> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            dispatch(granted);
+        }
+        long now = System.currentTimeMillis();
+        for (Ticket ticket : granted) {
+            Permit permit = new Permit();
+            if (!ticket.future.complete(permit)) {
+                // 票据刚好超时或被取消，归还名额
+                permit.release();
+                continue;
+            }
+            long wait = now - ticket.enqueuedAt;
+            admitted.increment();
+            totalWaitMillis.add(wait);
+            maxWaitMillis.accumulateAndGet(wait, Math::max);
+        }
+    }
+    
+    /**
+     * 按客户端轮转放行，每轮每个客户端最多放行一个请求
+     */
+    private void dispatch(List<Ticket> granted) {
+        Iterator<Map.Entry<String, Deque<Ticket>>> it = queues.entrySet().iterator();
+        List<Map.Entry<String, Deque<Ticket>>> rotated = new ArrayList<>();
+        while (inFlight < maxInFlight && it.hasNext()) {
+            Map.Entry<String, Deque<Ticket>> entry = it.next();
+            Ticket ticket = pollLive(entry.getValue());
+            it.remove();
+            if (ticket != null) {
+                inFlight++;
+                granted.add(ticket);
+            }
+            if (!entry.getValue().isEmpty()) {
+                rotated.add(entry);
+            }
+            if (!it.hasNext() && !rotated.isEmpty() && inFlight < maxInFlight) {
+                // 一轮结束仍有名额，开始下一轮
+                rotated.forEach(e -> queues.put(e.getKey(), e.getValue()));
+                rotated.clear();
+                it = queues.entrySet().iterator();
+            }
+        }
+        // 本轮已被服务的客户端排到队尾
+        rotated.forEach(e -> queues.put(e.getKey(), e.getValue()));
+    }
+    
+    private synchronized void remove(Ticket ticket) {
+        Deque<Ticket> queue = queues.get(ticket.clientKey);
+        if (queue != null && queue.remove(ticket)) {
+            queued--;
+            if (queue.isEmpty()) {
+                queues.remove(ticket.clientKey);
+            }
+        }
+    }
+    
+    private Ticket pollLive(Deque<Ticket> queue) {
+        Ticket ticket;
+        while ((ticket = queue.pollFirst()) != null) {
+            queued--;
+            if (!ticket.future.isDone()) {
+                return ticket;
+            }
+        }
+        return null;
+    }
+    
+    private static class Ticket {
+        private final String clientKey;
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.currentTimeMillis();
+        
+        private Ticket(String clientKey) {
+            this.clientKey = clientKey;
+        }
+    }
+    
+    /**
+     * 执行名额，请求结束后必须调用 {@link #release()} 归还（重复调用无副作用）
+     */
+    public class Permit {
+        
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                AIAdmissionQueue.this.release();
+            }
+        }
+    }
+}
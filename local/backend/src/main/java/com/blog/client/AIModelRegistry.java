@@ -0,0 +1,107 @@
+package com.blog.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支持的模型及其默认生成参数（ai.models配置）
+ */
+@Component
+public class AIModelRegistry {
+    
+    @Value("${ai.models.default:${ai.vllm.model}}")
+    private String defaultModel;
+    
+    /**
+     * 逗号分隔，每项为 模型名:max_tokens:temperature:top_p（参数可省略，省略时取ai.vllm配置）
+     */
+    @Value("${ai.models.supported:}")
+    private String supported;
+    
+    @Value("${ai.vllm.max-tokens}")
+    private int maxTokens;
+    
+    @Value("${ai.vllm.temperature}")
+    private double temperature;
+    
+    @Value("${ai.vllm.top-p}")
+    private double topP;
+    
+    private Map<String, Model> models;
+    
+    @PostConstruct
+    public void init() {
+        Map<String, Model> parsed = new LinkedHashMap<>();
+        if (supported != null) {
+            for (String item : supported.split(",")) {
+                item = item.trim();
+                if (!item.isEmpty()) {
+                    Model model = parse(item);
+                    parsed.put(model.getName(), model);
+                }
+            }
+        }
+        parsed.putIfAbsent(defaultModel, new Model(defaultModel, maxTokens, temperature, topP));
+        models = Collections.unmodifiableMap(parsed);
+    }
+    
+    /**
+     * 解析请求的模型，为空时返回默认模型，不支持时返回null
+     */
+    public Model resolve(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return models.get(defaultModel);
+        }
+        return models.get(name.trim());
+    }
+    
+    public List<Model> getModels() {
+        return new ArrayList<>(models.values());
+    }
+    
+    private Model parse(String item) {
+        String[] parts = item.split(":");
+        // 模型名本身可能包含冒号：从右侧取数字参数，依次为 max_tokens、temperature、top_p
+        int numeric = 0;
+        while (numeric < 3 && parts.length - numeric > 1 && isNumber(parts[parts.length - numeric - 1])) {
+            numeric++;
+        }
+        int first = parts.length - numeric;
+        String name = String.join(":", Arrays.copyOf(parts, first)).trim();
+        int tokens = numeric >= 1 ? (int) Double.parseDouble(parts[first].trim()) : maxTokens;
+        double temp = numeric >= 2 ? Double.parseDouble(parts[first + 1].trim()) : temperature;
+        double p = numeric >= 3 ? Double.parseDouble(parts[first + 2].trim()) : topP;
+        return new Model(name, tokens, temp, p);
+    }
+    
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value.trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 模型及其默认生成参数
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Model {
+        private final String name;
+        private final int maxTokens;
+        private final double temperature;
+        private final double topP;
+    }
+}
@@ -0,0 +1,159 @@
+package com.blog.client;
+
+import com.blog.util.LocalCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * AI对话补全响应缓存
+ *
+ * 以 (model, messages, temperature, top_p, max_tokens) 归一化后的SHA-256为键缓存vLLM响应；
+ * 相同请求并发到达时只向上游发起一次调用，其余请求共享结果。
+ */
+@Component
+public class AIResponseCache {
+    
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    @Value("${ai.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ai.cache.max-size:1000}")
+    private int maxSize;
+    
+    @Value("${ai.cache.ttl:600000}")
+    private long ttl;
+    
+    private LocalCache<String, Map<String, Object>> cache;
+    
+    /**
+     * 正在请求上游的key
+     */
+    private final Map<String, CompletableFuture<Map<String, Object>>> inflight = new ConcurrentHashMap<>();
+    
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder savedPromptTokens = new LongAdder();
+    private final LongAdder savedCompletionTokens = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        cache = new LocalCache<>("ai-response", maxSize, ttl);
+    }
+    
+    /**
+     * 读取缓存，未命中时调用loader请求上游，成功后写入缓存
+     *
+     * @param aiRequest 发往vLLM的请求体
+     * @param loader    未命中时的上游调用
+     */
+    public CompletableFuture<Map<String, Object>> get(Map<String, Object> aiRequest,
+                                                      Supplier<CompletableFuture<Map<String, Object>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = key(aiRequest);
+        Map<String, Object> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            recordSaved(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            // 与正在进行的相同请求合并
+            coalesced.increment();
+            return existing.thenApply(result -> {
+                recordSaved(result);
+                return result;
+            });
+        }
+        try {
+            loader.get().whenComplete((result, e) -> {
+                if (e == null && result != null) {
+                    cache.put(key, result);
+                }
+                inflight.remove(key, future);
+                if (e != null) {
+                    future.completeExceptionally(e);
+                } else {
+                    future.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inflight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        return future;
+    }
+    
+    /**
+     * 缓存统计（命中率、合并请求数、节省的token数）
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = cache.stats();
+        stats.put("enabled", enabled);
+        stats.put("coalesced", coalesced.sum());
+        stats.put("savedPromptTokens", savedPromptTokens.sum());
+        stats.put("savedCompletionTokens", savedCompletionTokens.sum());
+        return stats;
+    }
+    
+    private void recordSaved(Map<String, Object> result) {
+        Object usage = result.get("usage");
+        if (usage instanceof Map) {
+            savedPromptTokens.add(toLong(((Map<?, ?>) usage).get("prompt_tokens")));
+            savedCompletionTokens.add(toLong(((Map<?, ?>) usage).get("completion_tokens")));
+        }
+    }
+    
+    /**
+     * 归一化请求后计算缓存键：消息内容统一Unicode形式、合并连续空白
+     */
+    static String key(Map<String, Object> aiRequest) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(aiRequest.get("model")).append('\n')
+          .append(aiRequest.get("temperature")).append('\n')
+          .append(aiRequest.get("top_p")).append('\n')
+          .append(aiRequest.get("max_tokens")).append('\n');
+        Object messages = aiRequest.get("messages");
+        Iterable<?> list = messages instanceof Object[] ? List.of((Object[]) messages) : (Iterable<?>) messages;
+        if (list != null) {
+            for (Object item : list) {
+                Map<?, ?> message = (Map<?, ?>) item;
+                sb.append(message.get("role")).append(':')
+                  .append(normalize(String.valueOf(message.get("content")))).append('\n');
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String normalize(String content) {
+        String text = Normalizer.normalize(content, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(text.trim()).replaceAll(" ");
+    }
+    
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
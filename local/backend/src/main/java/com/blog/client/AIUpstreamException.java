@@ -0,0 +1,28 @@
+package com.blog.client;
+
+/**
+ * AI上游服务（vLLM）调用异常
+ */
+public class AIUpstreamException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 上游返回的HTTP状态码，连接失败等情况为 -1
+     */
+    private final int status;
+    
+    public AIUpstreamException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+    
+    public AIUpstreamException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = -1;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+}
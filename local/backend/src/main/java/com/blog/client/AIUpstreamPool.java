@@ -0,0 +1,274 @@
+package com.blog.client;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * vLLM上游节点池
+ *
+ * 多个OpenAI兼容节点之间按"最少进行中请求"路由，可按模型限定节点；
+ * 连续失败达到阈值的节点熔断一段时间，到期后进入半开状态只放行一个试探请求，试探成功才关闭熔断；
+ * 主动健康检查连续失败达到阈值的节点不参与路由。
+ */
+@Component
+public class AIUpstreamPool {
+    
+    @Value("${ai.vllm.url}")
+    private String defaultUrl;
+    
+    /**
+     * 节点列表，逗号分隔，每项为 url 或 url=模型1|模型2（不指定模型表示可服务所有模型）
+     */
+    @Value("${ai.upstream.endpoints:}")
+    private String endpoints;
+    
+    @Value("${ai.upstream.failure-threshold:3}")
+    private int failureThreshold;
+    
+    @Value("${ai.upstream.open-duration:30000}")
+    private long openDuration;
+    
+    /**
+     * 健康检查连续失败多少次后将节点标记为不健康，避免单次抖动摘除节点
+     */
+    @Value("${ai.upstream.health-failure-threshold:3}")
+    private int healthFailureThreshold;
+    
+    private List<Node> nodes;
+    
+    /**
+     * 进行中请求数相同时的轮转起点
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+    
+    @PostConstruct
+    public void init() {
+        List<Node> parsed = new ArrayList<>();
+        if (endpoints != null && !endpoints.trim().isEmpty()) {
+            for (String item : endpoints.split(",")) {
+                item = item.trim();
+                if (item.isEmpty()) {
+                    continue;
+                }
+                int idx = item.indexOf('=');
+                Set<String> models = new LinkedHashSet<>();
+                if (idx > 0) {
+                    for (String model : item.substring(idx + 1).split("\\|")) {
+                        if (!model.trim().isEmpty()) {
+                            models.add(model.trim());
+                        }
+                    }
+                    item = item.substring(0, idx).trim();
+                }
+                parsed.add(new Node(item, models));
+            }
+        }
+        if (parsed.isEmpty()) {
+            parsed.add(new Node(defaultUrl, Collections.emptySet()));
+        }
+        nodes = Collections.unmodifiableList(parsed);
+    }
+    
+    /**
+     * 为指定模型选择一个节点并占用（请求结束后须以返回的租约调用 {@link #release}）
+     *
+     * @throws AIUpstreamException 没有可用节点时抛出
+     */
+    public Lease acquire(String model) {
+        long now = System.currentTimeMillis();
+        int size = nodes.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        Node selected = null;
+        boolean trial = false;
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get((start + i) % size);
+            if (!node.serves(model) || !node.healthy) {
+                continue;
+            }
+            long openUntil = node.openUntil;
+            if (openUntil != 0) {
+                // 半开：熔断到期后只放行一个试探请求，试探期间其余请求仍绕开该节点
+                if (openUntil <= now && node.trial.compareAndSet(false, true)) {
+                    selected = node;
+                    trial = true;
+                    break;
+                }
+                continue;
+            }
+            if (selected == null || node.outstanding.get() < selected.outstanding.get()) {
+                selected = node;
+            }
+        }
+        if (selected == null) {
+            throw new AIUpstreamException(503, "没有可用的AI服务节点" + (model != null ? ": " + model : ""));
+        }
+        selected.outstanding.incrementAndGet();
+        selected.requests.increment();
+        return new Lease(selected, trial);
+    }
+    
+    /**
+     * 归还节点并记录调用结果，同一租约只生效一次
+     *
+     * @param success 是否成功（连接失败、超时与5xx视为失败）
+     */
+    public void release(Lease lease, boolean success) {
+        if (!lease.released.compareAndSet(false, true)) {
+            return;
+        }
+        Node node = lease.node;
+        node.outstanding.decrementAndGet();
+        if (!success) {
+            node.failures.increment();
+        }
+        long now = System.currentTimeMillis();
+        if (lease.trial) {
+            // 半开试探的结果决定熔断状态：成功则关闭熔断，失败则重新熔断
+            if (success) {
+                node.consecutiveFailures.set(0);
+                node.openUntil = 0;
+            } else {
+                node.openUntil = now + openDuration;
+            }
+            node.trial.set(false);
+            return;
+        }
+        if (node.openUntil != 0) {
+            // 熔断前已发出的请求不影响熔断状态，只由试探请求决定
+            return;
+        }
+        if (success) {
+            node.consecutiveFailures.set(0);
+        } else if (node.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            // 熔断：一段时间内不再路由到该节点，到期后进入半开状态
+            node.openUntil = now + openDuration;
+        }
+    }
+    
+    /**
+     * 更新健康检查结果：一次成功即恢复健康，连续失败达到阈值才标记为不健康
+     *
+     * 熔断只由半开试探请求关闭，健康检查不改变熔断状态。
+     */
+    public void markHealth(Node node, boolean healthy) {
+        if (healthy) {
+            node.consecutiveProbeFailures.set(0);
+            node.healthy = true;
+        } else if (node.consecutiveProbeFailures.incrementAndGet() >= healthFailureThreshold) {
+            node.healthy = false;
+        }
+    }
+    
+    public List<Node> getNodes() {
+        return nodes;
+    }
+    
+    /**
+     * 节点状态
+     */
+    public List<Map<String, Object>> stats() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Node node : nodes) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("url", node.url);
+            item.put("models", node.models);
+            item.put("healthy", node.healthy);
+            item.put("circuit", node.circuitState(now));
+            item.put("outstanding", node.outstanding.get());
+            item.put("requests", node.requests.sum());
+            item.put("failures", node.failures.sum());
+            stats.add(item);
+        }
+        return stats;
+    }
+    
+    /**
+     * 一次节点占用：记录所选节点以及是否为半开试探请求，只有试探请求归还时才结束试探
+     */
+    public static final class Lease {
+        
+        @Getter
+        private final Node node;
+        
+        private final boolean trial;
+        
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        Lease(Node node, boolean trial) {
+            this.node = node;
+            this.trial = trial;
+        }
+    }
+    
+    /**
+     * 上游节点
+     */
+    @Getter
+    public static class Node {
+        
+        private final String url;
+        
+        private final String baseUrl;
+        
+        /**
+         * 可服务的模型，为空表示不限
+         */
+        private final Set<String> models;
+        
+        private final AtomicInteger outstanding = new AtomicInteger();
+        
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        
+        private final AtomicInteger consecutiveProbeFailures = new AtomicInteger();
+        
+        /**
+         * 半开状态下是否已有试探请求在进行
+         */
+        private final AtomicBoolean trial = new AtomicBoolean();
+        
+        private final LongAdder requests = new LongAdder();
+        
+        private final LongAdder failures = new LongAdder();
+        
+        private volatile boolean healthy = true;
+        
+        /**
+         * 熔断截止时间，0表示未熔断
+         */
+        private volatile long openUntil;
+        
+        Node(String url, Set<String> models) {
+            this.url = url;
+            this.baseUrl = VllmClient.resolveBaseUrl(url);
+            this.models = Collections.unmodifiableSet(models);
+        }
+        
+        boolean serves(String model) {
+            return models.isEmpty() || model == null || models.contains(model);
+        }
+        
+        /**
+         * 熔断状态：closed、open（熔断中）或 half-open（到期，等待或正在试探）
+         */
+        String circuitState(long now) {
+            if (openUntil == 0) {
+                return "closed";
+            }
+            return openUntil > now ? "open" : "half-open";
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.blog.client;
+
+/**
+ * AI请求准入被拒绝（排队已满或等待超时）
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 被拒绝时的排队长度
+     */
+    private final int queueDepth;
+    
+    public AdmissionRejectedException(String message, int queueDepth) {
+        super(message);
+        this.queueDepth = queueDepth;
+    }
+    
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+}
@@ -0,0 +1,397 @@
+package com.blog.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * vLLM上游客户端（OpenAI兼容接口）
+ *
+ * 所有AI接口共用同一个HttpClient：HTTP/1.1长连接池复用到vLLM的连接，
+ * 连接超时与请求超时均来自配置，非流式调用返回CompletableFuture，不占用请求线程。
+ * 请求经 {@link AIUpstreamPool} 选择节点，并定时对所有节点做健康检查。
+ */
+@Component
+public class VllmClient {
+    
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+    
+    @Value("${ai.vllm.api-key}")
+    private String apiKey;
+    
+    @Value("${ai.vllm.timeout}")
+    private int timeout;
+    
+    @Value("${ai.vllm.connect-timeout:5000}")
+    private int connectTimeout;
+    
+    @Value("${ai.vllm.keep-alive:300}")
+    private int keepAliveSeconds;
+    
+    @Value("${ai.vllm.client-threads:8}")
+    private int clientThreads;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private AIUpstreamPool upstreamPool;
+    
+    private HttpClient httpClient;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        // JDK HttpClient的连接池参数只能通过系统属性设置，且需在首次创建客户端前生效
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(keepAliveSeconds));
+        }
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vllm-client-", 0).factory());
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(clientThreads, r -> {
+                Thread thread = new Thread(r, "vllm-client-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .executor(executor)
+                .build();
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * 非流式对话补全
+     */
+    public CompletableFuture<Map<String, Object>> chatCompletion(Map<String, Object> body) {
+        return chatCompletion(body, Duration.ofMillis(timeout));
+    }
+    
+    /**
+     * 非流式对话补全，指定本次请求的超时。
+     * 超时或取消返回的future时中止上游请求，节点随之归还，不必等到全局超时。
+     */
+    public CompletableFuture<Map<String, Object>> chatCompletion(Map<String, Object> body, Duration requestTimeout) {
+        AIUpstreamPool.Lease lease = upstreamPool.acquire((String) body.get("model"));
+        CompletableFuture<HttpResponse<byte[]>> future;
+        try {
+            future = httpClient.sendAsync(
+                    jsonPost(lease.getNode(), body, MediaType.APPLICATION_JSON_VALUE, requestTimeout),
+                    HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            upstreamPool.release(lease, true);
+            throw e;
+        }
+        CompletableFuture<Map<String, Object>> result = future
+                .whenComplete((response, e) -> upstreamPool.release(lease, e == null && response.statusCode() < 500))
+                .thenApply(response -> {
+                    if (response.statusCode() != HttpStatus.OK.value()) {
+                        throw new AIUpstreamException(response.statusCode(), "AI服务响应异常: " + response.statusCode());
+                    }
+                    return readMap(objectMapper, response.body());
+                });
+        // 取消派生的future不会传递到HTTP请求，需要显式取消
+        result.whenComplete((response, e) -> {
+            if (e instanceof CancellationException) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * 流式对话补全，返回上游SSE响应体（阻塞直到收到响应头）。
+     * 调用方负责关闭输入流，提前关闭即取消上游请求；关闭后节点才被归还。
+     */
+    public ChatStream openChatStream(Map<String, Object> body) throws IOException, InterruptedException {
+        AIUpstreamPool.Lease lease = upstreamPool.acquire((String) body.get("model"));
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(
+                    jsonPost(lease.getNode(), body, MediaType.TEXT_EVENT_STREAM_VALUE, Duration.ofMillis(timeout)),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            upstreamPool.release(lease, false);
+            throw e;
+        }
+        if (response.statusCode() != HttpStatus.OK.value()) {
+            response.body().close();
+            upstreamPool.release(lease, response.statusCode() < 500);
+            throw new AIUpstreamException(response.statusCode(), "AI服务响应异常: " + response.statusCode());
+        }
+        return new ChatStream(response.body(), lease);
+    }
+    
+    /**
+     * 对所有节点做健康检查（GET /health），返回各节点状态
+     */
+    public CompletableFuture<List<Map<String, Object>>> health() {
+        List<CompletableFuture<Void>> checks = new ArrayList<>();
+        for (AIUpstreamPool.Node node : upstreamPool.getNodes()) {
+            checks.add(httpClient.sendAsync(get(node, "/health"), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, e) -> {
+                        upstreamPool.markHealth(node, e == null && response.statusCode() == HttpStatus.OK.value());
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> upstreamPool.stats());
+    }
+    
+    /**
+     * 定时主动健康检查
+     */
+    @Scheduled(fixedDelayString = "${ai.upstream.health-interval:10000}")
+    public void scheduledHealthCheck() {
+        health();
+    }
+    
+    /**
+     * 模型列表（GET /v1/models），合并所有可用节点的结果
+     */
+    public CompletableFuture<List<Object>> models() {
+        List<CompletableFuture<Map<String, Object>>> requests = new ArrayList<>();
+        for (AIUpstreamPool.Node node : upstreamPool.getNodes()) {
+            if (!node.isHealthy()) {
+                continue;
+            }
+            requests.add(httpClient.sendAsync(get(node, "/v1/models"), HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> {
+                        if (response.statusCode() != HttpStatus.OK.value()) {
+                            throw new AIUpstreamException(response.statusCode(), "获取模型列表失败");
+                        }
+                        return readMap(objectMapper, response.body());
+                    })
+                    // 单个节点失败不影响其他节点的结果
+                    .exceptionally(e -> null));
+        }
+        if (requests.isEmpty()) {
+            return CompletableFuture.failedFuture(new AIUpstreamException(503, "没有可用的AI服务节点"));
+        }
+        return CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    // 按模型ID去重
+                    Map<Object, Object> merged = new LinkedHashMap<>();
+                    boolean anySuccess = false;
+                    for (CompletableFuture<Map<String, Object>> request : requests) {
+                        Map<String, Object> result = request.join();
+                        if (result == null) {
+                            continue;
+                        }
+                        anySuccess = true;
+                        Object data = result.get("data");
+                        if (data instanceof List) {
+                            for (Object item : (List<?>) data) {
+                                Object id = item instanceof Map ? ((Map<?, ?>) item).get("id") : item;
+                                merged.putIfAbsent(id, item);
+                            }
+                        }
+                    }
+                    if (!anySuccess) {
+                        throw new AIUpstreamException(503, "获取模型列表失败");
+                    }
+                    return new ArrayList<>(merged.values());
+                });
+    }
+    
+    /**
+     * 取出CompletableFuture异常链中的实际原因
+     */
+    public static Throwable unwrap(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+    
+    /**
+     * 上游SSE响应体，关闭时按流的结果归还节点。
+     * 读取上游出错或调用方以 {@link #finish} 告知流未完整结束（未收到[DONE]）时记为节点失败；
+     * 未告知结果就关闭（如客户端取消）不计入失败。
+     */
+    public final class ChatStream extends FilterInputStream {
+        
+        private final AIUpstreamPool.Lease lease;
+        
+        private volatile boolean failed;
+        
+        private ChatStream(InputStream in, AIUpstreamPool.Lease lease) {
+            super(in);
+            this.lease = lease;
+        }
+        
+        /**
+         * 告知流是否完整结束
+         */
+        public void finish(boolean done) {
+            failed = !done;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                upstreamPool.release(lease, !failed);
+            }
+        }
+    }
+    
+    private HttpRequest jsonPost(AIUpstreamPool.Node node, Map<String, Object> body, String accept,
+                                 Duration requestTimeout) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(node.getUrl()))
+                .timeout(requestTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, accept)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload));
+        if (hasApiKey()) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+        }
+        return builder.build();
+    }
+    
+    private HttpRequest get(AIUpstreamPool.Node node, String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(node.getBaseUrl() + path))
+                .timeout(Duration.ofMillis(Math.min(timeout, 10000)))
+                .GET();
+        if (hasApiKey()) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey);
+        }
+        return builder.build();
+    }
+    
+    /**
+     * 将上游的JSON响应体解析为Map
+     */
+    public static Map<String, Object> readMap(ObjectMapper objectMapper, byte[] body) {
+        try {
+            return objectMapper.readValue(body, MAP_TYPE);
+        } catch (IOException e) {
+            throw new AIUpstreamException("AI服务返回格式错误", e);
+        }
+    }
+    
+    /**
+     * 非流式响应中第一个候选的消息，格式：{"choices": [{"message": {"content": "..."}}]}，不符合时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> firstMessage(Map<String, Object> response) {
+        Object choices = response.get("choices");
+        if (!(choices instanceof List) || ((List<?>) choices).isEmpty()) {
+            return null;
+        }
+        Object choice = ((List<?>) choices).get(0);
+        Object message = choice instanceof Map ? ((Map<?, ?>) choice).get("message") : null;
+        return message instanceof Map ? (Map<String, Object>) message : null;
+    }
+    
+    /**
+     * SSE行中 data: 之后的内容，注释、空行等其他行返回null
+     */
+    public static String ssePayload(String line) {
+        return line.startsWith("data:") ? line.substring(5).trim() : null;
+    }
+    
+    /**
+     * 流式数据块中的增量内容（choices[0].delta.content），没有时返回null
+     */
+    public static String deltaContent(JsonNode chunk) {
+        JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+        return content.isTextual() ? content.asText() : null;
+    }
+    
+    private boolean hasApiKey() {
+        return apiKey != null && !apiKey.equals("your-api-key-here");
+    }
+    
+    /**
+     * 从配置的 vllmUrl 推导出基础地址（协议 + 主机 + 端口）。
+     * 例如：
+     *  - http://vllm:8000/v1/chat/completions -> http://vllm:8000
+     *  - http://localhost:8000/v1/chat/completions -> http://localhost:8000
+     */
+    static String resolveBaseUrl(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme();
+            String host = uri.getHost();
+            int port = uri.getPort();
+            if (scheme == null || host == null) {
+                // 回退：按 /v1/ 截断
+                int idx = url.indexOf("/v1/");
+                return idx > 0 ? url.substring(0, idx) : url;
+            }
+            return scheme + "://" + host + (port > -1 ? ":" + port : "");
+        } catch (Exception ex) {
+            int idx = url.indexOf("/v1/");
+            return idx > 0 ? url.substring(0, idx) : url;
+        }
+    }
+}
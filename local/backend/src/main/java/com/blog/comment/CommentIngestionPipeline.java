@@ -0,0 +1,376 @@
+package com.blog.comment;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.blog.entity.Comment;
+import com.blog.event.CommentCreatedEvent;
+import com.blog.mapper.CommentMapper;
+import com.blog.util.LatencyRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 评论写入管道
+ *
+ * 发表评论只进入内存队列（待审核状态），由单个写入线程攒批后用多行INSERT写库，
+ * 写入后交给审核线程池异步审核，审核结果按状态批量UPDATE，通过的评论发布CommentCreatedEvent。
+ * 审核线程池排满时不再提交，评论保持待审核状态，稍后由写入线程从数据库分批取出补审；
+ * 写入线程只负责写库和提交审核，不执行审核本身。启动时未审核的评论同样由写入线程补审。
+ */
+@Slf4j
+@Component
+public class CommentIngestionPipeline {
+    
+    private static final int[] BATCH_SIZE_BOUNDS = {1, 5, 20, 50, 100, 200, 500, 1000, Integer.MAX_VALUE};
+    
+    @Autowired
+    private CommentMapper commentMapper;
+    
+    @Autowired
+    private CommentModerator moderator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${comment.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${comment.ingest.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${comment.ingest.max-delay:50}")
+    private long maxDelayMillis;
+    
+    @Value("${comment.moderation.threads:2}")
+    private int moderationThreads;
+    
+    /**
+     * 审核线程池排满后，间隔多久再从数据库补审待审核评论
+     */
+    @Value("${comment.moderation.retry-delay:5000}")
+    private long retryDelayMillis;
+    
+    private BlockingQueue<Pending> queue;
+    
+    private Thread writer;
+    
+    private ThreadPoolExecutor moderationExecutor;
+    
+    private volatile boolean running;
+    
+    /**
+     * 已提交审核、尚未完成的评论ID，补审时跳过，避免重复审核
+     */
+    private final Set<Long> moderating = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * 计划补审的时间（System.currentTimeMillis），0表示没有待补审的评论
+     */
+    private final AtomicLong recoverAt = new AtomicLong();
+    
+    /**
+     * 入队到写入数据库的耗时
+     */
+    private final LatencyRecorder ingestLag = new LatencyRecorder("comment-ingest-lag", 60000);
+    
+    /**
+     * 入队到审核完成的耗时
+     */
+    private final LatencyRecorder moderationLag = new LatencyRecorder("comment-moderation-lag", 60000);
+    
+    private final LongAdder[] batchSizes = new LongAdder[BATCH_SIZE_BOUNDS.length];
+    
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder insertFailures = new LongAdder();
+    private final LongAdder approved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder moderationDeferred = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < batchSizes.length; i++) {
+            batchSizes[i] = new LongAdder();
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        moderationExecutor = new ThreadPoolExecutor(moderationThreads, moderationThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), r -> {
+                    Thread thread = new Thread(r, "comment-moderation");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        running = true;
+        writer = new Thread(this::writeLoop, "comment-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    /**
+     * 停止接收新评论，写完队列中剩余的评论并等待审核完成
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(10000);
+        moderationExecutor.shutdown();
+        moderationExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * 提交一条待写入的评论，队列已满返回false
+     */
+    public boolean submit(Comment comment) {
+        if (running && queue.offer(new Pending(comment, System.nanoTime()))) {
+            accepted.increment();
+            return true;
+        }
+        rejectedFull.increment();
+        return false;
+    }
+    
+    /**
+     * 启动后由写入线程补审上次停机前已写入但未审核的评论
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPending() {
+        recoverAt.set(System.currentTimeMillis());
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("accepted", accepted.sum());
+        stats.put("rejectedQueueFull", rejectedFull.sum());
+        stats.put("inserted", inserted.sum());
+        stats.put("insertFailures", insertFailures.sum());
+        stats.put("approved", approved.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("moderationQueued", moderationExecutor.getQueue().size());
+        stats.put("moderationDeferred", moderationDeferred.sum());
+        stats.put("ingestLag", ingestLag.stats());
+        stats.put("moderationLag", moderationLag.stats());
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE_BOUNDS.length; i++) {
+            String label = BATCH_SIZE_BOUNDS[i] == Integer.MAX_VALUE ? "+Inf" : "<=" + BATCH_SIZE_BOUNDS[i];
+            histogram.put(label, batchSizes[i].sum());
+        }
+        stats.put("batchSizes", histogram);
+        stats.put("moderation", moderator.stats());
+        return stats;
+    }
+    
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                long due = recoverAt.get();
+                if (due != 0 && due <= System.currentTimeMillis() && running && recoverAt.compareAndSet(due, 0)) {
+                    try {
+                        recover();
+                    } catch (RuntimeException e) {
+                        log.error("补审待审核评论失败", e);
+                        recoverAt.compareAndSet(0, System.currentTimeMillis() + retryDelayMillis);
+                    }
+                }
+                Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 第一条到达后最多再等maxDelay，攒满batchSize提前写入
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(new ArrayList<>(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("评论批量写入异常", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void write(List<Pending> batch) {
+        List<Comment> comments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            comments.add(pending.comment);
+        }
+        try {
+            commentMapper.insertBatch(comments);
+        } catch (RuntimeException e) {
+            // 整批失败时逐条重试，只丢弃真正写不进去的评论
+            log.warn("评论批量写入失败，逐条重试: {}", e.getMessage());
+            List<Pending> written = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                try {
+                    commentMapper.insert(pending.comment);
+                    written.add(pending);
+                } catch (RuntimeException ex) {
+                    insertFailures.increment();
+                    log.error("评论写入失败: articleId={}, userId={}", pending.comment.getArticleId(),
+                            pending.comment.getUserId(), ex);
+                }
+            }
+            batch = written;
+        }
+        
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            ingestLag.record(now - pending.enqueuedAt);
+        }
+        inserted.add(batch.size());
+        
+        if (!batch.isEmpty()) {
+            recordBatchSize(batch.size());
+            submitModeration(batch);
+        }
+    }
+    
+    /**
+     * 从数据库分批取出待审核的评论提交审核，审核线程池排满时停止，稍后继续
+     */
+    private void recover() {
+        long lastId = 0;
+        while (running) {
+            QueryWrapper<Comment> wrapper = new QueryWrapper<>();
+            wrapper.eq("status", 0)
+                   .gt("id", lastId)
+                   .orderByAsc("id")
+                   .last("LIMIT " + batchSize);
+            List<Comment> comments = commentMapper.selectList(wrapper);
+            if (comments.isEmpty()) {
+                return;
+            }
+            lastId = comments.get(comments.size() - 1).getId();
+            List<Pending> batch = new ArrayList<>(comments.size());
+            for (Comment comment : comments) {
+                if (!moderating.contains(comment.getId())) {
+                    batch.add(new Pending(comment, System.nanoTime()));
+                }
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            log.info("补审待审核评论: {}条", batch.size());
+            if (!submitModeration(batch)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 提交审核；线程池已满时评论保持待审核状态，计划稍后补审并返回false
+     */
+    private boolean submitModeration(List<Pending> batch) {
+        for (Pending pending : batch) {
+            moderating.add(pending.comment.getId());
+        }
+        try {
+            moderationExecutor.execute(() -> moderate(batch));
+            return true;
+        } catch (RejectedExecutionException e) {
+            for (Pending pending : batch) {
+                moderating.remove(pending.comment.getId());
+            }
+            moderationDeferred.add(batch.size());
+            recoverAt.compareAndSet(0, System.currentTimeMillis() + retryDelayMillis);
+            return false;
+        }
+    }
+    
+    private void moderate(List<Pending> batch) {
+        List<Comment> comments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            comments.add(pending.comment);
+        }
+        try {
+            Map<Long, Integer> decisions = moderator.moderate(comments);
+            List<Long> approvedIds = new ArrayList<>();
+            List<Long> rejectedIds = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : decisions.entrySet()) {
+                (entry.getValue() == CommentModerator.APPROVED ? approvedIds : rejectedIds).add(entry.getKey());
+            }
+            if (!approvedIds.isEmpty()) {
+                commentMapper.updateStatus(approvedIds, CommentModerator.APPROVED);
+            }
+            if (!rejectedIds.isEmpty()) {
+                commentMapper.updateStatus(rejectedIds, CommentModerator.REJECTED);
+            }
+            approved.add(approvedIds.size());
+            rejected.add(rejectedIds.size());
+            
+            long now = System.nanoTime();
+            for (Pending pending : batch) {
+                Comment comment = pending.comment;
+                comment.setStatus(decisions.get(comment.getId()));
+                moderationLag.record(now - pending.enqueuedAt);
+                if (comment.getStatus() == CommentModerator.APPROVED) {
+                    eventPublisher.publishEvent(new CommentCreatedEvent(comment));
+                }
+            }
+        } catch (RuntimeException e) {
+            // 保持待审核状态，之后的补审（启动时或审核线程池排满后）会再次提交
+            log.error("评论审核失败: {}条", batch.size(), e);
+        } finally {
+            for (Pending pending : batch) {
+                moderating.remove(pending.comment.getId());
+            }
+        }
+    }
+    
+    private void recordBatchSize(int size) {
+        for (int i = 0; i < BATCH_SIZE_BOUNDS.length; i++) {
+            if (size <= BATCH_SIZE_BOUNDS[i]) {
+                batchSizes[i].increment();
+                return;
+            }
+        }
+    }
+    
+    private static final class Pending {
+        private final Comment comment;
+        private final long enqueuedAt;
+        
+        private Pending(Comment comment, long enqueuedAt) {
+            this.comment = comment;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
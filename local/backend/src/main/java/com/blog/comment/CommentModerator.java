@@ -0,0 +1,239 @@
+package com.blog.comment;
+
+import com.blog.client.AIAdmissionQueue;
+import com.blog.client.AIModelRegistry;
+import com.blog.client.VllmClient;
+import com.blog.entity.Comment;
+import com.blog.mapper.CommentMapper;
+import com.blog.util.LocalCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 评论审核
+ *
+ * 依次检查：屏蔽词、回复的评论是否属于同一篇文章、同一用户短时间内重复发表相同内容；
+ * 规则检查通过后，如开启了模型审核，再调用本地vLLM判断。模型审核的并发单独限制，
+ * 有AI对话排队或进行中的对话超过上限时跳过模型审核，不与用户的对话抢占上游；
+ * 跳过或模型调用失败时按规则结果放行。
+ */
+@Slf4j
+@Component
+public class CommentModerator {
+    
+    public static final int APPROVED = 1;
+    
+    public static final int REJECTED = 2;
+    
+    private static final String LLM_PROMPT = "你是博客评论审核助手。判断用户评论是否包含广告、辱骂、色情、违法等不当内容。"
+            + "只回答一个词：PASS 或 REJECT。";
+    
+    @Autowired
+    private CommentMapper commentMapper;
+    
+    @Autowired
+    private VllmClient vllmClient;
+    
+    @Autowired
+    private AIModelRegistry modelRegistry;
+    
+    @Autowired
+    private AIAdmissionQueue admissionQueue;
+    
+    @Value("${comment.moderation.blocked-words:}")
+    private String blockedWordsConfig;
+    
+    @Value("${comment.moderation.duplicate-window:60000}")
+    private long duplicateWindow;
+    
+    @Value("${comment.moderation.duplicate-max-size:100000}")
+    private int duplicateMaxSize;
+    
+    @Value("${comment.moderation.llm.enabled:false}")
+    private boolean llmEnabled;
+    
+    @Value("${comment.moderation.llm.max-concurrent:2}")
+    private int llmMaxConcurrent;
+    
+    @Value("${comment.moderation.llm.timeout:30000}")
+    private long llmTimeout;
+    
+    /**
+     * 进行中的AI对话数不超过该值且没有对话排队时才调用模型审核
+     */
+    @Value("${comment.moderation.llm.max-interactive:0}")
+    private int llmMaxInteractive;
+    
+    private List<String> blockedWords;
+    
+    /**
+     * 同一用户发表相同内容（按内容哈希）时窗口内最先出现的评论ID；
+     * 同一条评论再次审核（补审、重试）时与记录的ID相同，不算重复
+     */
+    private LocalCache<String, Long> recentContent;
+    
+    private Semaphore llmPermits;
+    
+    private final LongAdder rejectedByKeyword = new LongAdder();
+    private final LongAdder rejectedByParent = new LongAdder();
+    private final LongAdder rejectedByDuplicate = new LongAdder();
+    private final LongAdder rejectedByLlm = new LongAdder();
+    private final LongAdder llmFailures = new LongAdder();
+    private final LongAdder llmYielded = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        blockedWords = new ArrayList<>();
+        for (String word : blockedWordsConfig.split(",")) {
+            if (!word.trim().isEmpty()) {
+                blockedWords.add(word.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        recentContent = new LocalCache<>("comment-recent-content", duplicateMaxSize, duplicateWindow);
+        llmPermits = new Semaphore(Math.max(1, llmMaxConcurrent));
+    }
+    
+    /**
+     * 审核一批已写入的评论
+     *
+     * @return 评论ID -> 审核结果（APPROVED / REJECTED）
+     */
+    public Map<Long, Integer> moderate(List<Comment> comments) {
+        Map<Long, Comment> parents = loadParents(comments);
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        for (Comment comment : comments) {
+            result.put(comment.getId(), decide(comment, parents));
+        }
+        return result;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rejectedByKeyword", rejectedByKeyword.sum());
+        stats.put("rejectedByParent", rejectedByParent.sum());
+        stats.put("rejectedByDuplicate", rejectedByDuplicate.sum());
+        stats.put("rejectedByLlm", rejectedByLlm.sum());
+        stats.put("llmEnabled", llmEnabled);
+        stats.put("llmFailures", llmFailures.sum());
+        stats.put("llmYielded", llmYielded.sum());
+        return stats;
+    }
+    
+    private int decide(Comment comment, Map<Long, Comment> parents) {
+        String content = comment.getContent().toLowerCase(Locale.ROOT);
+        for (String word : blockedWords) {
+            if (content.contains(word)) {
+                rejectedByKeyword.increment();
+                return REJECTED;
+            }
+        }
+        
+        if (comment.getParentId() != null) {
+            Comment parent = parents.get(comment.getParentId());
+            if (parent == null || !parent.getArticleId().equals(comment.getArticleId())
+                    || parent.getStatus() == REJECTED) {
+                rejectedByParent.increment();
+                return REJECTED;
+            }
+        }
+        
+        String contentKey = comment.getUserId() + ":" + comment.getContent().trim().hashCode();
+        if (!comment.getId().equals(recentContent.get(contentKey, key -> comment.getId()))) {
+            rejectedByDuplicate.increment();
+            return REJECTED;
+        }
+        
+        if (llmEnabled && !classifyWithLlm(comment.getContent())) {
+            rejectedByLlm.increment();
+            return REJECTED;
+        }
+        return APPROVED;
+    }
+    
+    /**
+     * 调用本地模型审核，返回是否通过（让行于AI对话或调用失败时返回true）
+     */
+    @SuppressWarnings("unchecked")
+    private boolean classifyWithLlm(String content) {
+        if (!isAIIdle()) {
+            llmYielded.increment();
+            return true;
+        }
+        AIModelRegistry.Model model = modelRegistry.resolve(null);
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model.getName());
+        body.put("messages", List.of(
+                Map.of("role", "system", "content", LLM_PROMPT),
+                Map.of("role", "user", "content", content)));
+        body.put("max_tokens", 4);
+        body.put("temperature", 0.0);
+        
+        try {
+            llmPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+        CompletableFuture<Map<String, Object>> future = null;
+        try {
+            future = vllmClient.chatCompletion(body, Duration.ofMillis(llmTimeout));
+            Map<String, Object> response = future.get(llmTimeout, TimeUnit.MILLISECONDS);
+            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
+            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+            String answer = String.valueOf(message.get("content")).toUpperCase(Locale.ROOT);
+            return !answer.contains("REJECT");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (Exception e) {
+            llmFailures.increment();
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.warn("评论模型审核失败，按规则结果放行: {}", cause.toString());
+            return true;
+        } finally {
+            if (future != null) {
+                // 超时或被中断时一并中止上游请求（已完成时无影响）
+                future.cancel(true);
+            }
+            llmPermits.release();
+        }
+    }
+    
+    private boolean isAIIdle() {
+        return admissionQueue.queueDepth() == 0 && admissionQueue.inFlight() <= llmMaxInteractive;
+    }
+    
+    private Map<Long, Comment> loadParents(List<Comment> comments) {
+        Set<Long> parentIds = new HashSet<>();
+        for (Comment comment : comments) {
+            if (comment.getParentId() != null) {
+                parentIds.add(comment.getParentId());
+            }
+        }
+        Map<Long, Comment> parents = new HashMap<>();
+        if (!parentIds.isEmpty()) {
+            for (Comment parent : commentMapper.selectBatchIds(parentIds)) {
+                parents.put(parent.getId(), parent);
+            }
+        }
+        return parents;
+    }
+}
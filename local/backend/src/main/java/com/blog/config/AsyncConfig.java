@@ -0,0 +1,79 @@
+package com.blog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步任务线程池配置
+ */
+@Configuration
+public class AsyncConfig {
+    
+    /**
+     * AI流式对话转发线程池（每个流占用一个线程，阻塞读取上游SSE）
+     *
+     * 虚拟线程模式下每个流一个虚拟线程，并发上限由准入队列（ai.admission.max-in-flight）保证
+     */
+    @Bean
+    public AsyncTaskExecutor aiStreamExecutor(@Value("${ai.vllm.stream.max-concurrent:128}") int maxConcurrent,
+                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-stream-", 0).factory()));
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.min(8, maxConcurrent));
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("ai-stream-");
+        // 超出并发上限直接拒绝，由调用方返回错误
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * 登录、注册在密码哈希完成后的后续处理（查询/写库、签发Token），不占用哈希线程
+     *
+     * 任务数受密码哈希线程池的排队上限约束，这里不再单独限制队列
+     */
+    @Bean
+    public AsyncTaskExecutor authExecutor(@Value("${auth.io-threads:8}") int threads,
+                                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("auth-io-", 0).factory()));
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("auth-io-");
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * 密码哈希线程池（BCrypt为CPU密集型，线程数不超过CPU核数，队列有界，满时拒绝）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(@Value("${auth.password.threads:0}") int threads,
+                                                       @Value("${auth.password.queue-capacity:200}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,33 @@
+package com.blog.config;
+
+import com.blog.cache.InMemoryRemoteCache;
+import com.blog.cache.LocalCacheMetrics;
+import com.blog.cache.RemoteCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 缓存配置
+ */
+@Configuration
+public class CacheConfig {
+    
+    /**
+     * 进程内的二级缓存（cache.l2.type=memory时启用，接入Redis时替换为对应实现）
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.l2.type", havingValue = "memory")
+    public RemoteCache inMemoryRemoteCache(@Value("${cache.l2.max-size:10000}") int maxSize) {
+        return new InMemoryRemoteCache(maxSize);
+    }
+    
+    /**
+     * 本地缓存的命中率、淘汰次数和条目数
+     */
+    @Bean
+    public LocalCacheMetrics localCacheMetrics() {
+        return new LocalCacheMetrics();
+    }
+}
@@ -0,0 +1,141 @@
+package com.blog.config;
+
+import com.blog.event.ArticleChangedEvent;
+import com.blog.event.ArticleRenderedEvent;
+import com.blog.util.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离（db.replica.enabled=true 时启用）
+ *
+ * 主库沿用 spring.datasource 配置，从库连接池使用 db.replica.hikari 配置，两个连接池各自受 db.pool-guard 限制。
+ * 标注 @Transactional(readOnly = true) 的查询走从库；从库不可用、复制延迟超过 db.replica.max-lag，
+ * 或当前用户、文章数据刚发生写入时改走主库。
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    
+    public ReadReplicaConfig(ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    @ConfigurationProperties("db.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${db.replica.url}") String url,
+                                              @Value("${db.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${db.replica.password:${spring.datasource.password}}") String password) {
+        return DataSourceBuilder.create(properties.getClassLoader())
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+    
+    /**
+     * 连接池在虚拟线程模式下会被包装为 BoundedDataSource，这里按名称注入
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                        @Qualifier("replicaDataSource") DataSource replica,
+                                                        @Value("${db.replica.max-lag:2}") long maxLag,
+                                                        @Value("${db.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                                        @Value("${db.replica.sticky-window:5000}") long stickyWindow) {
+        return new ReadWriteRoutingDataSource(primary, replica, maxLag, lagQuery, stickyWindow,
+                ReadReplicaConfig::currentUser);
+    }
+    
+    /**
+     * 应用使用的数据源：推迟到第一条语句执行时才借连接并决定路由
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    @Scheduled(fixedDelayString = "${db.replica.check-interval:1000}")
+    public void checkReplica() {
+        routingDataSource.getObject().checkReplica();
+    }
+    
+    /**
+     * 文章变更提交后的一个窗口期内只读查询走主库，避免失效后的详情、列表缓存被从库的旧数据回填
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChanged(ArticleChangedEvent event) {
+        routingDataSource.getObject().fence();
+    }
+    
+    /**
+     * 渲染结果和自动摘要在渲染线程中直接写入主库，同样需要窗口期
+     */
+    @EventListener
+    public void onArticleRendered(ArticleRenderedEvent event) {
+        routingDataSource.getObject().fence();
+    }
+    
+    /**
+     * 路由情况（db.replica.*、db.routing.reads）
+     */
+    @Bean
+    public MeterBinder readReplicaMetrics(ReadWriteRoutingDataSource routingDataSource) {
+        return registry -> {
+            Gauge.builder("db.replica.available", routingDataSource, r -> r.isReplicaAvailable() ? 1 : 0)
+                    .register(registry);
+            Gauge.builder("db.replica.lag", routingDataSource, ReadWriteRoutingDataSource::getReplicaLag)
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("db.routing.reads", routingDataSource, ReadWriteRoutingDataSource::getReplicaReads)
+                    .tag("target", "replica").tag("reason", "read-only")
+                    .register(registry);
+            FunctionCounter.builder("db.routing.reads", routingDataSource, ReadWriteRoutingDataSource::getStickyReads)
+                    .tag("target", "primary").tag("reason", "recent-write")
+                    .register(registry);
+            FunctionCounter.builder("db.routing.reads", routingDataSource, ReadWriteRoutingDataSource::getFallbackReads)
+                    .tag("target", "primary").tag("reason", "replica-unavailable")
+                    .register(registry);
+        };
+    }
+    
+    /**
+     * 当前登录用户ID（JwtAuthenticationFilter 写入的principal），匿名请求和后台线程返回null
+     */
+    private static Object currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof Long
+                ? authentication.getPrincipal() : null;
+    }
+}
@@ -1,12 +1,22 @@
 package com.blog.config;
 
+import com.blog.security.JwtAuthenticationFilter;
+import com.blog.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.nio.charset.StandardCharsets;
 
 /**
  * Spring Security配置类
@@ -15,23 +25,57 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
     
+    /**
+     * BCrypt密码编码器，调高cost后旧密码在下次登录时自动重新哈希
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtUtil jwtUtil) throws Exception {
         http
             .csrf().disable()
+            .cors()
+            .and()
+            .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            .and()
             .authorizeRequests()
+            // 文章的增删改需要登录，作者ID取自Token
+            .antMatchers(HttpMethod.POST, "/api/articles").authenticated()
+            .antMatchers(HttpMethod.PUT, "/api/articles/*").authenticated()
+            .antMatchers(HttpMethod.DELETE, "/api/articles/*").authenticated()
+            // 索引重建和各类统计接口只对管理员开放，注册用户同样不能触发全量重建或读取内部状态
+            .antMatchers(HttpMethod.POST, "/api/articles/search/rebuild", "/api/articles/facets/rebuild").hasRole("ADMIN")
+            .antMatchers(HttpMethod.GET, "/api/articles/*/stats", "/api/comments/stats", "/api/ai/sessions/stats",
+                    "/api/auth/stats").hasRole("ADMIN")
+            .antMatchers(HttpMethod.GET, "/api/comments/**").permitAll()
             .antMatchers("/api/auth/**", "/api/articles/**", "/api/ai/**").permitAll()
+            // 监控指标（nginx 只代理 /api/，外网无法访问）
+            .antMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
             .anyRequest().authenticated()
             .and()
+            .exceptionHandling()
+            .authenticationEntryPoint((request, response, e) -> {
+                response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.getWriter().write("{\"code\":401,\"message\":\"未登录或登录已过期\",\"data\":null,\"timestamp\":"
+                        + System.currentTimeMillis() + "}");
+            })
+            .accessDeniedHandler((request, response, e) -> {
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.getWriter().write("{\"code\":403,\"message\":\"没有访问权限\",\"data\":null,\"timestamp\":"
+                        + System.currentTimeMillis() + "}");
+            })
+            .and()
+            .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class)
             .formLogin().disable()
             .httpBasic().disable();
         
         return http.build();
     }
 }
-
@@ -0,0 +1,85 @@
+package com.blog.config;
+
+import com.blog.util.BoundedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模式（spring.threads.virtual.enabled=true 时启用）
+ *
+ * Tomcat 每个请求一个虚拟线程，阻塞在 MySQL 或 vLLM 上时不占用平台线程；
+ * AI 流式转发和 vLLM 客户端回调的线程池在 AsyncConfig、VllmClient 中按同一开关切换。
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    
+    /**
+     * HikariCP 允许的最小 connection-timeout，单位毫秒
+     */
+    private static final long MIN_POOL_TIMEOUT = 250;
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadExecutorCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory()));
+    }
+    
+    /**
+     * 请求线程数不再受限，为连接池加一层信号量，同时借用连接的线程数不超过连接池大小
+     *
+     * 等待许可和连接池自身的等待是先后两段，hikari.connection-timeout 作为两者合计的上限拆分：
+     * 许可等待使用 db.pool-guard.timeout（未配置时取一半），连接池等待调整为剩余部分（不低于250ms）。
+     */
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(@Value("${db.pool-guard.permits:0}") int permits,
+                                                                    @Value("${db.pool-guard.timeout:0}") long timeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource)) {
+                    return bean;
+                }
+                HikariDataSource hikari = (HikariDataSource) bean;
+                long total = hikari.getConnectionTimeout();
+                long permitTimeout = timeout > 0 ? Math.min(timeout, total - MIN_POOL_TIMEOUT) : total / 2;
+                hikari.setConnectionTimeout(Math.max(MIN_POOL_TIMEOUT, total - permitTimeout));
+                return new BoundedDataSource(hikari,
+                        permits > 0 ? permits : hikari.getMaximumPoolSize(),
+                        Math.max(1, permitTimeout));
+            }
+        };
+    }
+    
+    /**
+     * 连接许可的使用情况（db.pool.guard.*，标签 pool 为连接池名称；读写分离时主库、从库各一组）
+     */
+    @Bean
+    public MeterBinder boundedDataSourceMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .filter(BoundedDataSource.class::isInstance)
+                .map(BoundedDataSource.class::cast)
+                .forEach(bounded -> {
+                    String pool = ((HikariDataSource) bounded.getTargetDataSource()).getPoolName();
+                    Gauge.builder("db.pool.guard.available", bounded, BoundedDataSource::getAvailablePermits)
+                            .tag("pool", pool).register(registry);
+                    Gauge.builder("db.pool.guard.waiting", bounded, BoundedDataSource::getWaitingThreads)
+                            .tag("pool", pool).register(registry);
+                    FunctionCounter.builder("db.pool.guard.timeouts", bounded, BoundedDataSource::getTimedOutCount)
+                            .tag("pool", pool).register(registry);
+                });
+    }
+}
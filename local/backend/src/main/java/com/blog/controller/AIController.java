@@ -1,15 +1,24 @@
 package com.blog.controller;
 
+import com.blog.client.AdmissionRejectedException;
 import com.blog.common.Result;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import com.blog.service.AIService;
+import com.blog.service.ConversationService;
+import com.blog.util.RequestUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
-import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.Map;
-import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * AI对话控制器（vLLM）
@@ -18,156 +27,126 @@ import java.net.URI;
 @RequestMapping("/api/ai")
 public class AIController {
 
-    @Value("${ai.vllm.url}")
-    private String vllmUrl;
+    private static final String SESSION_TOKEN_HEADER = "X-Session-Token";
 
-    @Value("${ai.vllm.model}")
-    private String model;
+    @Autowired
+    private AIService aiService;
 
-    @Value("${ai.vllm.api-key}")
-    private String apiKey;
-
-    @Value("${ai.vllm.timeout}")
-    private int timeout;
-
-    @Value("${ai.vllm.max-tokens}")
-    private int maxTokens;
-
-    @Value("${ai.vllm.temperature}")
-    private double temperature;
-
-    @Value("${ai.vllm.top-p}")
-    private double topP;
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private ConversationService conversationService;
 
     /**
      * AI对话接口（vLLM）
      */
     @PostMapping("/chat")
-    public Result<?> chat(@RequestBody Map<String, String> request) {
+    public CompletableFuture<Result<?>> chat(@RequestBody Map<String, String> request,
+                                             @AuthenticationPrincipal Long userId,
+                                             HttpServletRequest servletRequest) {
+        return aiService.chat(request.get("message"), request.get("model"), request.get("sessionId"),
+                request.get("sessionToken"), userId, RequestUtil.getClientIp(servletRequest));
+    }
+
+    /**
+     * AI流式对话接口（SSE，逐块转发vLLM的OpenAI兼容流式响应）
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(@RequestBody Map<String, String> request,
+                                                 @AuthenticationPrincipal Long userId,
+                                                 HttpServletRequest servletRequest) {
         try {
-            String userMessage = request.get("message");
-            if (userMessage == null || userMessage.trim().isEmpty()) {
-                return Result.error("消息内容不能为空");
+            SseEmitter emitter = aiService.chatStream(request.get("message"), request.get("model"),
+                    request.get("sessionId"), request.get("sessionToken"), userId,
+                    RequestUtil.getClientIp(servletRequest));
+            // 关闭nginx代理缓冲，保证逐块下发
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .cacheControl(CacheControl.noCache())
+                    .body(emitter);
+        } catch (AdmissionRejectedException e) {
+            SseEmitter emitter = new SseEmitter();
+            try {
+                emitter.send(SseEmitter.event().name("error").data(rejection(e), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException ex) {
+                emitter.completeWithError(ex);
             }
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(emitter);
+        }
+    }
 
-            // 构建vLLM请求体（OpenAI兼容格式）
-            Map<String, Object> aiRequest = new HashMap<>();
-            aiRequest.put("model", model);
-            aiRequest.put("messages", new Object[] {
-                Map.of("role", "user", "content", userMessage)
-            });
-            aiRequest.put("max_tokens", maxTokens);
-            aiRequest.put("temperature", temperature);
-            aiRequest.put("top_p", topP);
-            aiRequest.put("stream", false);
-
-            // 设置请求头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            if (apiKey != null && !apiKey.equals("your-api-key-here")) {
-                headers.set("Authorization", "Bearer " + apiKey);
-            }
+    /**
+     * 获取会话统计（每轮发送的prompt token数）
+     */
+    @GetMapping("/sessions/stats")
+    public Result<?> getSessionStats() {
+        return conversationService.getStats();
+    }
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(aiRequest, headers);
-
-            // 调用vLLM服务
-            ResponseEntity<Map> response = restTemplate.exchange(
-                vllmUrl,
-                HttpMethod.POST,
-                entity,
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> result = response.getBody();
-
-                // vLLM返回格式：{"choices": [{"message": {"content": "..."}}]}
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) result.get("choices");
-                if (choices != null && !choices.isEmpty()) {
-                    Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-                    String responseText = (String) message.get("content");
-
-                    Map<String, Object> data = new HashMap<>();
-                    data.put("message", responseText);
-                    data.put("model", model);
-                    data.put("usage", result.get("usage"));
-
-                    return Result.success("AI回复成功", data);
-                } else {
-                    return Result.error("AI服务返回格式错误");
-                }
-            } else {
-                return Result.error("AI服务响应异常: " + response.getStatusCode());
-            }
-        } catch (Exception e) {
-            return Result.error("AI服务调用失败: " + e.getMessage());
-        }
+    /**
+     * 获取会话历史（登录用户的会话校验用户，匿名会话校验 X-Session-Token）
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public Result<?> getSession(@PathVariable String sessionId,
+                                @RequestHeader(value = SESSION_TOKEN_HEADER, required = false) String sessionToken,
+                                @AuthenticationPrincipal Long userId) {
+        return conversationService.getHistory(sessionId, userId, sessionToken);
+    }
+
+    /**
+     * 删除会话（校验方式同上）
+     */
+    @DeleteMapping("/sessions/{sessionId}")
+    public Result<?> deleteSession(@PathVariable String sessionId,
+                                   @RequestHeader(value = SESSION_TOKEN_HEADER, required = false) String sessionToken,
+                                   @AuthenticationPrincipal Long userId) {
+        return conversationService.deleteSession(sessionId, userId, sessionToken);
     }
 
     /**
      * 检查vLLM服务状态
      */
     @GetMapping("/status")
-    public Result<?> checkStatus() {
-        try {
-            // 检查vLLM服务健康状态（从配置的vllmUrl推导基础地址）
-            String baseUrl = getVllmBaseUrl();
-            ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/health", String.class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                return Result.success("vLLM服务正常运行");
-            } else {
-                return Result.error("vLLM服务异常");
-            }
-        } catch (Exception e) {
-            return Result.error("vLLM服务未连接: " + e.getMessage());
-        }
+    public CompletableFuture<Result<?>> checkStatus() {
+        return aiService.checkStatus();
     }
 
     /**
      * 获取可用模型列表
      */
     @GetMapping("/models")
-    public Result<?> getModels() {
-        try {
-            String baseUrl = getVllmBaseUrl();
-            ResponseEntity<Map> response = restTemplate.getForEntity(baseUrl + "/v1/models", Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> result = response.getBody();
-                return Result.success("获取模型列表成功", result.get("data"));
-            } else {
-                return Result.error("获取模型列表失败");
-            }
-        } catch (Exception e) {
-            return Result.error("无法获取模型列表: " + e.getMessage());
-        }
+    public CompletableFuture<Result<?>> getModels() {
+        return aiService.getModels();
     }
 
     /**
-     * 从配置的 vllmUrl 推导出基础地址（协议 + 主机 + 端口）。
-     * 例如：
-     *  - http://vllm:8000/v1/chat/completions -> http://vllm:8000
-     *  - http://localhost:8000/v1/chat/completions -> http://localhost:8000
+     * 获取准入队列统计（排队数、等待时间、拒绝次数）
      */
-    private String getVllmBaseUrl() {
-        try {
-            URI uri = URI.create(vllmUrl);
-            String scheme = uri.getScheme();
-            String host = uri.getHost();
-            int port = uri.getPort();
-            if (scheme == null || host == null) {
-                // 回退：按 /v1/ 截断
-                int idx = vllmUrl.indexOf("/v1/");
-                return idx > 0 ? vllmUrl.substring(0, idx) : vllmUrl;
-            }
-            return scheme + "://" + host + (port > -1 ? ":" + port : "");
-        } catch (Exception ex) {
-            int idx = vllmUrl.indexOf("/v1/");
-            return idx > 0 ? vllmUrl.substring(0, idx) : vllmUrl;
-        }
+    @GetMapping("/queue")
+    public Result<?> getQueueStats() {
+        return aiService.getQueueStats();
     }
-}
 
+    /**
+     * 获取响应缓存统计（命中率、节省的token数）
+     */
+    @GetMapping("/cache")
+    public Result<?> getCacheStats() {
+        return aiService.getCacheStats();
+    }
+
+    /**
+     * 排队已满或排队超时，返回429
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Result<?>> handleRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(rejection(e));
+    }
+
+    private Result<?> rejection(AdmissionRejectedException e) {
+        return Result.error(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage(), Map.of("queueDepth", e.getQueueDepth()));
+    }
+}
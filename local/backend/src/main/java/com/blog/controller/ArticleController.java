@@ -1,14 +1,31 @@
 package com.blog.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.blog.cache.PreSerializedJson;
 import com.blog.common.Result;
 import com.blog.dto.ArticleRequest;
 import com.blog.entity.Article;
 import com.blog.service.ArticleService;
+import com.blog.service.FacetService;
+import com.blog.service.SearchService;
+import com.blog.service.TrendingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 文章控制器
@@ -20,12 +37,33 @@ public class ArticleController {
     @Autowired
     private ArticleService articleService;
     
+    @Autowired
+    private SearchService searchService;
+    
+    @Autowired
+    private FacetService facetService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    /**
+     * 详情、列表、热门的浏览器缓存时间（秒），0表示每次都向服务端校验
+     */
+    @Value("${article.http-cache.detail-max-age:0}")
+    private long detailMaxAge;
+    
+    @Value("${article.http-cache.list-max-age:10}")
+    private long listMaxAge;
+    
+    @Value("${article.http-cache.trending-max-age:10}")
+    private long trendingMaxAge;
+    
     /**
      * 创建文章
      */
     @PostMapping
     public Result<?> createArticle(@Valid @RequestBody ArticleRequest request,
-                                  @RequestParam Long userId) {
+                                  @AuthenticationPrincipal Long userId) {
         return articleService.createArticle(request, userId);
     }
     
@@ -35,7 +73,7 @@ public class ArticleController {
     @PutMapping("/{id}")
     public Result<?> updateArticle(@PathVariable Long id,
                                   @Valid @RequestBody ArticleRequest request,
-                                  @RequestParam Long userId) {
+                                  @AuthenticationPrincipal Long userId) {
         return articleService.updateArticle(id, request, userId);
     }
     
@@ -44,36 +82,210 @@ public class ArticleController {
      */
     @DeleteMapping("/{id}")
     public Result<?> deleteArticle(@PathVariable Long id,
-                                  @RequestParam Long userId) {
+                                  @AuthenticationPrincipal Long userId) {
         return articleService.deleteArticle(id, userId);
     }
     
+    /**
+     * 全文检索文章（按相关度排序，带高亮）
+     */
+    @GetMapping("/search")
+    public Result<?> search(@RequestParam String keyword,
+                            @RequestParam(required = false) String category,
+                            @RequestParam(defaultValue = "1") Integer page,
+                            @RequestParam(defaultValue = "10") Integer size,
+                            ServletWebRequest webRequest) {
+        if (searchService.isReady() && checkListNotModified(webRequest)) {
+            return null;
+        }
+        Page<?> result = searchService.search(keyword, category, page, size);
+        if (result == null) {
+            return Result.error("搜索索引构建中，请稍后重试");
+        }
+        return Result.success(result);
+    }
+    
+    /**
+     * 从数据库重建搜索索引
+     */
+    @PostMapping("/search/rebuild")
+    public Result<?> rebuildSearchIndex() {
+        return searchService.rebuild();
+    }
+    
+    /**
+     * 搜索索引状态
+     */
+    @GetMapping("/search/stats")
+    public Result<?> getSearchStats() {
+        return searchService.getStats();
+    }
+    
+    /**
+     * 按分类和标签筛选文章（tags 逗号分隔，需全部包含）
+     */
+    @GetMapping("/filter")
+    public Result<?> filter(@RequestParam(required = false) String category,
+                            @RequestParam(required = false) List<String> tags,
+                            @RequestParam(defaultValue = "1") Integer page,
+                            @RequestParam(defaultValue = "10") Integer size,
+                            ServletWebRequest webRequest) {
+        if (facetService.isReady() && checkListNotModified(webRequest)) {
+            return null;
+        }
+        Page<?> result = facetService.filter(category, tags, page, size);
+        if (result == null) {
+            return Result.error("筛选索引构建中，请稍后重试");
+        }
+        return Result.success(result);
+    }
+    
+    /**
+     * 当前筛选条件下各分类、各标签的文章数
+     */
+    @GetMapping("/facets")
+    public Result<?> getFacets(@RequestParam(required = false) String category,
+                               @RequestParam(required = false) List<String> tags,
+                               ServletWebRequest webRequest) {
+        if (facetService.isReady() && checkListNotModified(webRequest)) {
+            return null;
+        }
+        Map<String, Object> result = facetService.facets(category, tags);
+        if (result == null) {
+            return Result.error("筛选索引构建中，请稍后重试");
+        }
+        return Result.success(result);
+    }
+    
+    /**
+     * 从数据库重建筛选索引
+     */
+    @PostMapping("/facets/rebuild")
+    public Result<?> rebuildFacetIndex() {
+        return facetService.rebuild();
+    }
+    
+    /**
+     * 筛选索引状态
+     */
+    @GetMapping("/facets/stats")
+    public Result<?> getFacetStats() {
+        return facetService.getStats();
+    }
+    
+    /**
+     * 热门文章（按近期浏览和评论的时间衰减热度排序）
+     */
+    @GetMapping("/trending")
+    public Result<?> getTrending(@RequestParam(defaultValue = "10") Integer limit,
+                                 ServletWebRequest webRequest) {
+        setCacheControl(webRequest, trendingMaxAge);
+        return trendingService.getTrending(limit);
+    }
+    
+    /**
+     * 文章缓存统计
+     */
+    @GetMapping("/cache/stats")
+    public Result<?> getCacheStats() {
+        return articleService.getCacheStats();
+    }
+    
+    /**
+     * 文章预渲染统计
+     */
+    @GetMapping("/render/stats")
+    public Result<?> getRenderStats() {
+        return articleService.getRenderStats();
+    }
+    
     /**
      * 获取文章详情
+     *
+     * 以文章ID和最后修改时间作为弱校验值，命中时只记浏览量、不返回正文。
+     * 浏览量不参与校验，304时客户端展示的是上次取到的浏览量。
+     * 正文响应直接写出预序列化的字节，客户端支持时输出预压缩的gzip；
+     * gzip与原文字节不同但内容等价，因此共用弱校验值，Vary 在304响应上同样带出。
      */
     @GetMapping("/{id}")
-    public Result<?> getArticle(@PathVariable Long id) {
-        return articleService.getArticleById(id);
+    public Result<?> getArticle(@PathVariable Long id, ServletWebRequest webRequest,
+                                HttpServletResponse response) throws IOException {
+        LocalDateTime lastModified = articleService.getArticleLastModified(id);
+        if (lastModified != null) {
+            long millis = lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            setCacheControl(webRequest, detailMaxAge);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (webRequest.checkNotModified("W/\"" + id + "-" + millis + "\"", millis)) {
+                articleService.recordView(id);
+                return null;
+            }
+        }
+        
+        // 热点文章直接写出预序列化（及预压缩）的字节
+        PreSerializedJson.Bound payload = articleService.getArticleDetailJson(id);
+        if (payload == null) {
+            return articleService.getArticleById(id);
+        }
+        // 很小的响应压缩后反而变大，此时直接输出原文
+        boolean gzip = PreSerializedJson.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                && payload.contentLength(true) < payload.contentLength(false);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(payload.contentLength(gzip));
+        payload.writeTo(response.getOutputStream(), gzip);
+        return null;
     }
     
     /**
-     * 分页查询文章列表
+     * 分页查询文章列表（count 选择总数的计算方式：exact、cached、none，默认见 article.page-count.mode）
      */
     @GetMapping
     public Result<?> getArticles(@RequestParam(defaultValue = "1") Integer page,
                                 @RequestParam(defaultValue = "10") Integer size,
                                 @RequestParam(required = false) String category,
-                                @RequestParam(required = false) String keyword) {
+                                @RequestParam(required = false) String keyword,
+                                @RequestParam(required = false) String count,
+                                ServletWebRequest webRequest) {
+        // 索引未就绪时关键词检索退回LIKE查询，结果排序不同，不做校验
+        boolean searching = keyword != null && !keyword.isEmpty();
+        if ((!searching || searchService.isReady()) && checkListNotModified(webRequest)) {
+            return null;
+        }
         Page<Article> pageParam = new Page<>(page, size);
-        return articleService.getArticles(pageParam, category, keyword);
+        return articleService.getArticles(pageParam, category, keyword, count);
     }
     
     /**
-     * 获取所有文章列表
+     * 游标分页获取文章列表
      */
     @GetMapping("/list")
-    public Result<?> getArticleList() {
-        return articleService.getArticleList();
+    public Result<?> getArticleList(@RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "10") Integer size,
+                                    @RequestParam(required = false) String category,
+                                    ServletWebRequest webRequest) {
+        if (checkListNotModified(webRequest)) {
+            return null;
+        }
+        return articleService.getArticleList(cursor, size, category);
+    }
+    
+    /**
+     * 列表类接口以列表版本号作为校验值（同一URL内有效），未变化时返回true，已写入304
+     */
+    private boolean checkListNotModified(ServletWebRequest webRequest) {
+        setCacheControl(webRequest, listMaxAge);
+        // 弱校验值：按版本而非字节比较，且 Tomcat 不压缩带强校验值的响应
+        return webRequest.checkNotModified("W/\"l" + articleService.getListVersion() + "\"");
+    }
+    
+    private void setCacheControl(ServletWebRequest webRequest, long maxAgeSeconds) {
+        CacheControl cacheControl = maxAgeSeconds > 0
+                ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS)
+                : CacheControl.noCache();
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.cachePublic().getHeaderValue());
     }
 }
 
@@ -4,10 +4,13 @@ import com.blog.common.Result;
 import com.blog.dto.LoginRequest;
 import com.blog.dto.RegisterRequest;
 import com.blog.service.UserService;
+import com.blog.util.RequestUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 认证控制器
@@ -23,7 +26,7 @@ public class AuthController {
      * 用户注册
      */
     @PostMapping("/register")
-    public Result<?> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<Result<?>> register(@Valid @RequestBody RegisterRequest request) {
         return userService.register(request);
     }
     
@@ -31,8 +34,17 @@ public class AuthController {
      * 用户登录
      */
     @PostMapping("/login")
-    public Result<?> login(@Valid @RequestBody LoginRequest request) {
-        return userService.login(request);
+    public CompletableFuture<Result<?>> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest servletRequest) {
+        return userService.login(request, RequestUtil.getClientIp(servletRequest));
+    }
+    
+    /**
+     * 登录相关统计（密码哈希耗时、线程池排队、限流）
+     */
+    @GetMapping("/stats")
+    public Result<?> getStats() {
+        return userService.getAuthStats();
     }
     
     /**
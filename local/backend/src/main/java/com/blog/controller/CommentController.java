@@ -0,0 +1,60 @@
+package com.blog.controller;
+
+import com.blog.common.Result;
+import com.blog.dto.CommentRequest;
+import com.blog.service.CommentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * 评论控制器
+ */
+@RestController
+@RequestMapping("/api/comments")
+public class CommentController {
+    
+    @Autowired
+    private CommentService commentService;
+    
+    /**
+     * 发表评论
+     */
+    @PostMapping
+    public Result<?> addComment(@Valid @RequestBody CommentRequest request,
+                                @AuthenticationPrincipal Long userId) {
+        return commentService.addComment(request, userId);
+    }
+    
+    /**
+     * 获取文章的评论树（按顶层评论游标分页）
+     */
+    @GetMapping("/article/{articleId}")
+    public Result<?> getCommentThread(@PathVariable Long articleId,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "10") Integer size) {
+        return commentService.getCommentThread(articleId, cursor, size);
+    }
+    
+    /**
+     * 批量获取文章评论数
+     */
+    @GetMapping("/counts")
+    public Result<?> getCommentCounts(@RequestParam List<Long> articleIds) {
+        if (articleIds.size() > 100) {
+            return Result.error("一次最多查询100篇文章");
+        }
+        return commentService.getCommentCounts(articleIds);
+    }
+    
+    /**
+     * 评论缓存统计
+     */
+    @GetMapping("/stats")
+    public Result<?> getStats() {
+        return commentService.getStats();
+    }
+}
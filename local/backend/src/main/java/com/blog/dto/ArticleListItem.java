@@ -0,0 +1,29 @@
+package com.blog.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文章列表项DTO（不含正文）
+ */
+@Data
+public class ArticleListItem implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private Long id;
+    
+    private String title;
+    
+    private String summary;
+    
+    private String category;
+    
+    private String tags;
+    
+    private Integer viewCount;
+    
+    private LocalDateTime createdAt;
+}
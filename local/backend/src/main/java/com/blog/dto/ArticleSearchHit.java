@@ -0,0 +1,46 @@
+package com.blog.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文章搜索结果项DTO（不含正文，附带高亮片段）
+ */
+@Data
+public class ArticleSearchHit implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private Long id;
+    
+    private String title;
+    
+    private String summary;
+    
+    private Long authorId;
+    
+    private String category;
+    
+    private String tags;
+    
+    private Integer viewCount;
+    
+    private LocalDateTime createdAt;
+    
+    /**
+     * 相关度得分
+     */
+    private Double score;
+    
+    /**
+     * 高亮后的标题（已做HTML转义，命中词以&lt;em&gt;包裹）
+     */
+    private String highlightTitle;
+    
+    /**
+     * 正文中命中位置附近的高亮片段
+     */
+    private String highlightContent;
+}
@@ -0,0 +1,38 @@
+package com.blog.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 评论树节点DTO（含全部回复）
+ */
+@Data
+public class CommentNode implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private Long id;
+    
+    private Long articleId;
+    
+    private Long userId;
+    
+    private String username;
+    
+    private String avatar;
+    
+    private String content;
+    
+    private Long parentId;
+    
+    private LocalDateTime createdAt;
+    
+    /**
+     * 直接回复，按时间正序
+     */
+    private List<CommentNode> replies = new ArrayList<>();
+}
@@ -0,0 +1,33 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 评论分页结果DTO（按顶层评论游标分页，每条顶层评论带完整回复树）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentThreadPage implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 文章的评论总数（含回复）
+     */
+    private Integer total;
+    
+    private List<CommentNode> records;
+    
+    /**
+     * 下一页游标，没有下一页时为null
+     */
+    private String nextCursor;
+    
+    private Boolean hasMore;
+}
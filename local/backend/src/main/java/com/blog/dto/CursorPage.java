@@ -0,0 +1,30 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果DTO
+ *
+ * @param <T> 数据类型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private List<T> records;
+    
+    /**
+     * 下一页游标，没有下一页时为null
+     */
+    private String nextCursor;
+    
+    private Boolean hasMore;
+}
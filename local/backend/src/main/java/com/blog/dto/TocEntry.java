@@ -0,0 +1,33 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 文章目录项DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TocEntry implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 标题级别（1-6）
+     */
+    private Integer level;
+    
+    /**
+     * 渲染后HTML中标题元素的id，用于页内锚点
+     */
+    private String id;
+    
+    /**
+     * 标题文本（纯文本，未转义）
+     */
+    private String text;
+}
@@ -0,0 +1,42 @@
+package com.blog.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 热门文章DTO（不含正文）
+ */
+@Data
+public class TrendingArticle implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private Long id;
+    
+    private String title;
+    
+    private String summary;
+    
+    private String category;
+    
+    private String tags;
+    
+    private LocalDateTime createdAt;
+    
+    /**
+     * 热度（按时间衰减后的加权浏览数与评论数）
+     */
+    private Double score;
+    
+    /**
+     * 统计窗口内的浏览数
+     */
+    private Long recentViews;
+    
+    /**
+     * 统计窗口内的评论数
+     */
+    private Long recentComments;
+}
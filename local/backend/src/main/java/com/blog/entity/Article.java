@@ -1,11 +1,13 @@
 package com.blog.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.blog.dto.TocEntry;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 文章实体类
@@ -78,5 +80,35 @@ public class Article implements Serializable {
      */
     @TableLogic
     private Integer deleted;
+    
+    /**
+     * 预渲染的HTML（只在详情中返回，尚未渲染时为空，由前端渲染Markdown）
+     */
+    @TableField(exist = false)
+    private String contentHtml;
+    
+    /**
+     * 目录（只在详情中返回）
+     */
+    @TableField(exist = false)
+    private List<TocEntry> toc;
+    
+    /**
+     * 字数（只在详情中返回）
+     */
+    @TableField(exist = false)
+    private Integer wordCount;
+    
+    /**
+     * 预计阅读时间，单位分钟（只在详情中返回）
+     */
+    @TableField(exist = false)
+    private Integer readingMinutes;
+    
+    /**
+     * 渲染结果的生成时间（只在详情中返回）
+     */
+    @TableField(exist = false)
+    private LocalDateTime renderedAt;
 }
 
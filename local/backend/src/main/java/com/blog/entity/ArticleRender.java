@@ -0,0 +1,65 @@
+package com.blog.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文章预渲染结果实体类（由 ArticleRenderPipeline 异步生成）
+ */
+@Data
+@TableName("article_renders")
+public class ArticleRender implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final String SUMMARY_CLIENT = "client";
+    
+    public static final String SUMMARY_EXTRACT = "extract";
+    
+    public static final String SUMMARY_AI = "ai";
+    
+    @TableId(value = "article_id", type = IdType.INPUT)
+    private Long articleId;
+    
+    /**
+     * 渲染时正文的MD5，与当前正文不一致说明渲染结果已过期
+     */
+    private String contentHash;
+    
+    /**
+     * 渲染后的HTML（原始HTML已转义，链接只保留 http/https/mailto 和相对地址）
+     */
+    private String contentHtml;
+    
+    /**
+     * 目录（JSON数组，元素为 TocEntry）
+     */
+    private String toc;
+    
+    /**
+     * 字数：汉字、假名、谚文按字计，其余按单词计
+     */
+    private Integer wordCount;
+    
+    /**
+     * 预计阅读时间，单位分钟
+     */
+    private Integer readingMinutes;
+    
+    /**
+     * 自动生成的摘要，作者填写了摘要时为空
+     */
+    private String summary;
+    
+    /**
+     * 摘要来源: client-作者填写, extract-从正文提取, ai-模型生成
+     */
+    private String summarySource;
+    
+    private LocalDateTime renderedAt;
+}
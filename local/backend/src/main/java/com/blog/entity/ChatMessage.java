@@ -0,0 +1,60 @@
+package com.blog.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * AI对话消息实体类
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("ai_chat_messages")
+public class ChatMessage implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 会话ID
+     */
+    private String sessionId;
+    
+    /**
+     * 会话所有者: user:用户ID，匿名会话为 token:凭证的SHA-256
+     */
+    private String owner;
+    
+    /**
+     * 角色: system, user, assistant
+     */
+    private String role;
+    
+    /**
+     * 消息内容
+     */
+    @TableField(value = "`content`")
+    private String content;
+    
+    /**
+     * 估算的token数
+     */
+    private Integer tokens;
+    
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+    
+    /**
+     * 逻辑删除
+     */
+    @TableLogic
+    private Integer deleted;
+}
@@ -0,0 +1,31 @@
+package com.blog.event;
+
+import com.blog.entity.Article;
+import lombok.Getter;
+
+/**
+ * 文章变更事件（创建、更新、删除），在事务提交后由监听方处理
+ */
+@Getter
+public class ArticleChangedEvent {
+    
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    private final Type type;
+    
+    /**
+     * 变更后的文章（删除时为删除前的文章）
+     */
+    private final Article article;
+    
+    public ArticleChangedEvent(Type type, Article article) {
+        this.type = type;
+        this.article = article;
+    }
+    
+    public Long getArticleId() {
+        return article.getId();
+    }
+}
@@ -0,0 +1,22 @@
+package com.blog.event;
+
+import lombok.Getter;
+
+/**
+ * 文章预渲染完成事件（HTML、目录、阅读时间或自动摘要有更新），在渲染线程中发布
+ */
+@Getter
+public class ArticleRenderedEvent {
+    
+    private final Long articleId;
+    
+    /**
+     * articles 表中的摘要是否被自动摘要更新
+     */
+    private final boolean summaryChanged;
+    
+    public ArticleRenderedEvent(Long articleId, boolean summaryChanged) {
+        this.articleId = articleId;
+        this.summaryChanged = summaryChanged;
+    }
+}
@@ -0,0 +1,17 @@
+package com.blog.event;
+
+import com.blog.entity.Comment;
+import lombok.Getter;
+
+/**
+ * 评论发表事件，评论审核通过（对外可见）后发布
+ */
+@Getter
+public class CommentCreatedEvent {
+    
+    private final Comment comment;
+    
+    public CommentCreatedEvent(Comment comment) {
+        this.comment = comment;
+    }
+}
@@ -3,11 +3,36 @@ package com.blog.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.blog.entity.Article;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Map;
 
 /**
  * 文章Mapper接口
  */
 @Mapper
 public interface ArticleMapper extends BaseMapper<Article> {
+    
+    /**
+     * 批量累加浏览量（单条UPDATE，按ID分别累加增量）
+     *
+     * @param deltas 文章ID -> 浏览量增量
+     */
+    @Update("<script>" +
+            "UPDATE articles SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "ELSE 0 END WHERE id IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int incrementViewCounts(@Param("deltas") Map<Long, Long> deltas);
+    
+    /**
+     * 写入自动生成的摘要，只覆盖空摘要或上次自动生成的摘要（作者在此期间填写的摘要不覆盖），不更新 updated_at
+     *
+     * @param previous 上次自动生成的摘要，没有时为null
+     */
+    @Update("UPDATE articles SET summary = #{summary} WHERE id = #{id} AND deleted = 0 " +
+            "AND (summary IS NULL OR summary = '' OR summary = #{previous})")
+    int updateAutoSummary(@Param("id") Long id, @Param("summary") String summary, @Param("previous") String previous);
 }
-
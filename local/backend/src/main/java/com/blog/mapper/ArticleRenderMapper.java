@@ -0,0 +1,60 @@
+package com.blog.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.blog.entity.ArticleRender;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 文章预渲染结果Mapper接口
+ */
+@Mapper
+public interface ArticleRenderMapper extends BaseMapper<ArticleRender> {
+    
+    /**
+     * 写入或覆盖一篇文章的渲染结果
+     */
+    @Insert("INSERT INTO article_renders (article_id, content_hash, content_html, toc, word_count, reading_minutes, " +
+            "summary, summary_source, rendered_at) VALUES (#{r.articleId}, #{r.contentHash}, #{r.contentHtml}, #{r.toc}, " +
+            "#{r.wordCount}, #{r.readingMinutes}, #{r.summary}, #{r.summarySource}, #{r.renderedAt}) " +
+            "ON DUPLICATE KEY UPDATE content_hash = VALUES(content_hash), content_html = VALUES(content_html), " +
+            "toc = VALUES(toc), word_count = VALUES(word_count), reading_minutes = VALUES(reading_minutes), " +
+            "summary = VALUES(summary), summary_source = VALUES(summary_source), rendered_at = VALUES(rendered_at)")
+    int upsert(@Param("r") ArticleRender render);
+    
+    /**
+     * 按ID顺序查找还没有渲染结果的文章
+     */
+    @Select("SELECT a.id FROM articles a LEFT JOIN article_renders r ON r.article_id = a.id " +
+            "WHERE a.deleted = 0 AND r.article_id IS NULL AND a.id > #{afterId} ORDER BY a.id LIMIT #{limit}")
+    List<Long> selectUnrenderedIds(@Param("afterId") long afterId, @Param("limit") int limit);
+    
+    /**
+     * 摘要为正文提取、可由模型重写的已发布文章，最早渲染的优先（不含正文和HTML）
+     */
+    @Select("SELECT r.article_id, r.content_hash, r.summary, r.summary_source FROM article_renders r " +
+            "JOIN articles a ON a.id = r.article_id " +
+            "WHERE r.summary_source = 'extract' AND a.deleted = 0 AND a.status = 1 " +
+            "ORDER BY r.rendered_at, r.article_id LIMIT #{limit}")
+    List<ArticleRender> selectSummaryCandidates(@Param("limit") int limit);
+    
+    /**
+     * 写入模型生成的摘要；正文在生成期间被修改（哈希不一致）时不更新
+     */
+    @Update("UPDATE article_renders SET summary = #{summary}, summary_source = 'ai', rendered_at = NOW() " +
+            "WHERE article_id = #{articleId} AND content_hash = #{contentHash} AND summary_source = 'extract'")
+    int updateAiSummary(@Param("articleId") Long articleId, @Param("contentHash") String contentHash,
+                        @Param("summary") String summary);
+    
+    /**
+     * 模型未生成有效摘要时把文章排到候选队列末尾，避免每一轮都卡在同一篇上
+     */
+    @Update("UPDATE article_renders SET rendered_at = NOW() " +
+            "WHERE article_id = #{articleId} AND content_hash = #{contentHash} AND summary_source = 'extract'")
+    int deferSummaryCandidate(@Param("articleId") Long articleId, @Param("contentHash") String contentHash);
+}
@@ -0,0 +1,12 @@
+package com.blog.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.blog.entity.ChatMessage;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * AI对话消息Mapper接口
+ */
+@Mapper
+public interface ChatMessageMapper extends BaseMapper<ChatMessage> {
+}
@@ -2,12 +2,54 @@ package com.blog.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.blog.entity.Comment;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 评论Mapper接口
  */
 @Mapper
 public interface CommentMapper extends BaseMapper<Comment> {
+    
+    /**
+     * 批量统计文章的已审核评论数（走 idx_article_status 索引）
+     *
+     * @return 每行包含 article_id、cnt，没有评论的文章不返回
+     */
+    @Select("<script>" +
+            "SELECT article_id AS article_id, COUNT(*) AS cnt FROM comments " +
+            "WHERE status = 1 AND deleted = 0 AND article_id IN " +
+            "<foreach collection='articleIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " GROUP BY article_id" +
+            "</script>")
+    List<Map<String, Object>> countByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+    
+    /**
+     * 多行INSERT批量写入评论，回填自增ID
+     */
+    @Insert("<script>" +
+            "INSERT INTO comments (article_id, user_id, `content`, parent_id, status, created_at, updated_at, deleted) VALUES " +
+            "<foreach collection='comments' item='c' separator=','>" +
+            "(#{c.articleId}, #{c.userId}, #{c.content}, #{c.parentId}, #{c.status}, #{c.createdAt}, #{c.updatedAt}, 0)" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "comments.id", keyColumn = "id")
+    int insertBatch(@Param("comments") List<Comment> comments);
+    
+    /**
+     * 批量更新审核状态
+     */
+    @Update("<script>" +
+            "UPDATE comments SET status = #{status}, updated_at = NOW() WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") int status);
 }
-
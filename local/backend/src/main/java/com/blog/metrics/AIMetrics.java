@@ -0,0 +1,108 @@
+package com.blog.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * vLLM上游调用指标（按模型）
+ *
+ * - ai.upstream.duration：上游请求总耗时，mode=blocking/stream
+ * - ai.upstream.ttft：流式请求从发出到收到首个内容块的时间
+ * - ai.upstream.tokens.per.second：生成速度（completion_tokens / 生成耗时）
+ * - ai.tokens：vLLM usage 字段中的 token 数，type=prompt/completion
+ */
+@Component
+public class AIMetrics {
+    
+    private final MeterRegistry registry;
+    
+    private final Map<String, ModelMeters> models = new ConcurrentHashMap<>();
+    
+    public AIMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    /**
+     * 非流式请求完成
+     *
+     * @param usage vLLM返回的usage字段，可为null
+     */
+    public void recordCompletion(String model, long durationNanos, Map<String, Object> usage) {
+        ModelMeters meters = meters(model);
+        meters.blockingDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (usage != null) {
+            int completionTokens = intValue(usage.get("completion_tokens"));
+            meters.recordTokens(intValue(usage.get("prompt_tokens")), completionTokens, durationNanos);
+        }
+    }
+    
+    /**
+     * 流式请求完成
+     *
+     * @param ttftNanos        首个内容块的到达时间，未收到内容时为-1
+     * @param promptTokens     取自最后一个块的usage，缺失时为-1
+     * @param completionTokens 取自最后一个块的usage，缺失时为-1
+     */
+    public void recordStream(String model, long durationNanos, long ttftNanos, int promptTokens, int completionTokens) {
+        ModelMeters meters = meters(model);
+        meters.streamDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (ttftNanos >= 0) {
+            meters.ttft.record(ttftNanos, TimeUnit.NANOSECONDS);
+        }
+        meters.recordTokens(promptTokens, completionTokens, durationNanos - Math.max(ttftNanos, 0));
+    }
+    
+    private ModelMeters meters(String model) {
+        ModelMeters meters = models.get(model);
+        if (meters == null) {
+            meters = models.computeIfAbsent(model, name -> new ModelMeters(registry, name));
+        }
+        return meters;
+    }
+    
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : -1;
+    }
+    
+    private static final class ModelMeters {
+        private final Timer blockingDuration;
+        private final Timer streamDuration;
+        private final Timer ttft;
+        private final DistributionSummary tokensPerSecond;
+        private final Counter promptTokens;
+        private final Counter completionTokens;
+        
+        private ModelMeters(MeterRegistry registry, String model) {
+            blockingDuration = Timer.builder("ai.upstream.duration").tag("model", model).tag("mode", "blocking")
+                    .register(registry);
+            streamDuration = Timer.builder("ai.upstream.duration").tag("model", model).tag("mode", "stream")
+                    .register(registry);
+            ttft = Timer.builder("ai.upstream.ttft").description("首个内容块到达时间").tag("model", model)
+                    .register(registry);
+            tokensPerSecond = DistributionSummary.builder("ai.upstream.tokens.per.second").description("生成速度")
+                    .tag("model", model).register(registry);
+            promptTokens = Counter.builder("ai.tokens").tag("model", model).tag("type", "prompt").register(registry);
+            completionTokens = Counter.builder("ai.tokens").tag("model", model).tag("type", "completion")
+                    .register(registry);
+        }
+        
+        private void recordTokens(int prompt, int completion, long generationNanos) {
+            if (prompt > 0) {
+                promptTokens.increment(prompt);
+            }
+            if (completion > 0) {
+                completionTokens.increment(completion);
+                if (generationNanos > 0) {
+                    tokensPerSecond.record(completion * 1e9 / generationNanos);
+                }
+            }
+        }
+    }
+}
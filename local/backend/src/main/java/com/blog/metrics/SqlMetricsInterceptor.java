@@ -0,0 +1,75 @@
+package com.blog.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL执行耗时统计（按Mapper方法）
+ *
+ * 指标 blog.sql，标签 statement 为 Mapper类名.方法名（如 ArticleMapper.selectById，分页的计数查询带 _mpCount 后缀）。
+ * 每条语句的Timer首次执行时创建并缓存，之后记录不产生对象分配。
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+    
+    private final MeterRegistry registry;
+    
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    
+    public SqlMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timer(statement).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private Timer timer(MappedStatement statement) {
+        Timer timer = timers.get(statement.getId());
+        if (timer == null) {
+            timer = timers.computeIfAbsent(statement.getId(), id -> Timer.builder("blog.sql")
+                    .description("SQL执行耗时")
+                    .tag("statement", shortName(id))
+                    .tag("command", statement.getSqlCommandType().name())
+                    .register(registry));
+        }
+        return timer;
+    }
+    
+    /**
+     * com.blog.mapper.ArticleMapper.selectById -> ArticleMapper.selectById
+     */
+    private static String shortName(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+}
@@ -0,0 +1,254 @@
+package com.blog.render;
+
+import com.blog.client.AIAdmissionQueue;
+import com.blog.client.AIModelRegistry;
+import com.blog.client.VllmClient;
+import com.blog.entity.Article;
+import com.blog.entity.ArticleRender;
+import com.blog.event.ArticleRenderedEvent;
+import com.blog.mapper.ArticleMapper;
+import com.blog.mapper.ArticleRenderMapper;
+import com.blog.util.LocalCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模型生成文章摘要（article.render.ai-summary.enabled=true 时执行）
+ *
+ * 定时取一批摘要为正文提取的已发布文章，逐篇调用本地vLLM重写摘要。生成任务优先级最低：
+ * 每次调用前检查对话准入队列，有用户请求排队或进行中的对话超过阈值时停止本批，留到下一轮；
+ * 同一时刻最多一个生成请求，不经过准入队列，不占用对话额度。正文在生成期间被修改时丢弃结果。
+ * 模型不可用（请求失败、超时）时停止本批；某篇文章只得到空内容或只有思考内容时跳过该篇，
+ * 排到候选队列末尾，并在 retry-delay 内不再重试。
+ */
+@Slf4j
+@Component
+public class AISummaryJob {
+    
+    private static final String PROMPT = "你是博客编辑。用一到两句话概括下面文章的主要内容，作为文章列表中显示的摘要。"
+            + "直接输出摘要，不要加前缀、引号或解释。";
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Autowired
+    private ArticleRenderMapper renderMapper;
+    
+    @Autowired
+    private VllmClient vllmClient;
+    
+    @Autowired
+    private AIModelRegistry modelRegistry;
+    
+    @Autowired
+    private AIAdmissionQueue admissionQueue;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${article.render.ai-summary.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${article.render.ai-summary.batch-size:10}")
+    private int batchSize;
+    
+    /**
+     * 进行中的对话数不超过该值时才生成摘要
+     */
+    @Value("${article.render.ai-summary.max-interactive:0}")
+    private int maxInteractive;
+    
+    @Value("${article.render.ai-summary.max-input-chars:4000}")
+    private int maxInputChars;
+    
+    @Value("${article.render.summary-length:160}")
+    private int summaryLength;
+    
+    @Value("${article.render.ai-summary.timeout:60000}")
+    private long timeout;
+    
+    @Value("${article.render.ai-summary.retry-delay:600000}")
+    private long retryDelay;
+    
+    /**
+     * 最近生成结果为空的文章，过期前不再重试
+     */
+    private LocalCache<Long, Boolean> backoff;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    /**
+     * 生成请求要等待数秒，放在单独的线程中，不占用定时任务线程
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "article-ai-summary");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder empty = new LongAdder();
+    private final LongAdder yielded = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        backoff = new LocalCache<>("ai-summary-backoff", 10000, retryDelay);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * 上一批还没处理完时跳过
+     */
+    @Scheduled(fixedDelayString = "${article.render.ai-summary.interval:30000}")
+    public void tick() {
+        if (!enabled || !isIdle() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                runBatch();
+            } catch (RuntimeException e) {
+                log.error("AI摘要生成异常", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("generated", generated.sum());
+        stats.put("discarded", discarded.sum());
+        stats.put("failures", failures.sum());
+        stats.put("empty", empty.sum());
+        stats.put("yielded", yielded.sum());
+        return stats;
+    }
+    
+    private void runBatch() {
+        for (ArticleRender candidate : renderMapper.selectSummaryCandidates(batchSize)) {
+            if (!isIdle()) {
+                yielded.increment();
+                return;
+            }
+            if (backoff.getIfPresent(candidate.getArticleId()) != null) {
+                continue;
+            }
+            Article article = articleMapper.selectById(candidate.getArticleId());
+            if (article == null || !ArticleRenderPipeline.hash(article.getContent()).equals(candidate.getContentHash())) {
+                continue;
+            }
+            String summary = generate(article);
+            if (summary == null) {
+                // 模型不可用时本批其余文章也会失败，等下一轮
+                return;
+            }
+            if (!StringUtils.hasText(summary)) {
+                // 只针对这一篇的失败，继续处理本批其余文章
+                empty.increment();
+                backoff.put(candidate.getArticleId(), Boolean.TRUE);
+                renderMapper.deferSummaryCandidate(candidate.getArticleId(), candidate.getContentHash());
+                log.warn("AI摘要为空，稍后重试: articleId={}", candidate.getArticleId());
+                continue;
+            }
+            if (renderMapper.updateAiSummary(candidate.getArticleId(), candidate.getContentHash(), summary) == 0) {
+                discarded.increment();
+                continue;
+            }
+            generated.increment();
+            boolean summaryChanged = articleMapper.updateAutoSummary(candidate.getArticleId(), summary,
+                    candidate.getSummary()) > 0;
+            eventPublisher.publishEvent(new ArticleRenderedEvent(candidate.getArticleId(), summaryChanged));
+        }
+    }
+    
+    /**
+     * 对话准入队列中没有排队的请求，且进行中的对话不超过阈值
+     */
+    private boolean isIdle() {
+        return admissionQueue.queueDepth() == 0 && admissionQueue.inFlight() <= maxInteractive;
+    }
+    
+    /**
+     * 调用本地模型生成摘要；请求失败时返回null，模型只返回空内容或思考内容时返回空串
+     */
+    @SuppressWarnings("unchecked")
+    private String generate(Article article) {
+        String content = article.getContent();
+        if (content.length() > maxInputChars) {
+            content = content.substring(0, maxInputChars);
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", modelRegistry.resolve(null).getName());
+        body.put("messages", List.of(
+                Map.of("role", "system", "content", PROMPT),
+                Map.of("role", "user", "content", "标题：" + article.getTitle() + "\n\n" + content)));
+        body.put("max_tokens", summaryLength * 2);
+        body.put("temperature", 0.3);
+        
+        CompletableFuture<Map<String, Object>> future = null;
+        try {
+            future = vllmClient.chatCompletion(body, Duration.ofMillis(timeout));
+            Map<String, Object> response = future.get(timeout, TimeUnit.MILLISECONDS);
+            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
+            Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+            Object reply = message.get("content");
+            return reply == null ? "" : clean(reply.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            failures.increment();
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.warn("AI摘要生成失败: articleId={}, {}", article.getId(), cause.toString());
+            return null;
+        } finally {
+            if (future != null) {
+                // 等待超时或被中断时一并中止上游请求，不再占用节点（已完成时无影响）
+                future.cancel(true);
+            }
+        }
+    }
+    
+    /**
+     * 去掉推理模型的思考内容和首尾引号，超长时截断
+     */
+    private String clean(String text) {
+        String summary = text.replaceAll("(?s)<think>.*?</think>", "")
+                .replaceAll("\\s+", " ")
+                .trim()
+                .replaceAll("^[\"“「]+|[\"”」]+$", "");
+        if (summary.codePointCount(0, summary.length()) > summaryLength) {
+            summary = summary.substring(0, summary.offsetByCodePoints(0, summaryLength)) + "…";
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,307 @@
+package com.blog.render;
+
+import com.blog.dto.TocEntry;
+import com.blog.entity.Article;
+import com.blog.entity.ArticleRender;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.event.ArticleRenderedEvent;
+import com.blog.mapper.ArticleMapper;
+import com.blog.mapper.ArticleRenderMapper;
+import com.blog.util.LatencyRecorder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 文章预渲染管道
+ *
+ * 文章创建、更新提交后只把ID放入队列，由单个渲染线程读取最新正文，生成HTML、目录、字数、阅读时间和摘要，
+ * 写入 article_renders 表并发布 ArticleRenderedEvent。读取详情时按正文哈希校验渲染结果，
+ * 过期或缺失时不在请求中渲染，只提交渲染并返回不含HTML的文章，前端退回客户端渲染。
+ * 作者没有填写摘要时，把提取的摘要写回 articles.summary，列表和检索无需改动即可显示。
+ */
+@Slf4j
+@Component
+public class ArticleRenderPipeline {
+    
+    private static final TypeReference<List<TocEntry>> TOC_TYPE = new TypeReference<List<TocEntry>>() {
+    };
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Autowired
+    private ArticleRenderMapper renderMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${article.render.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${article.render.summary-length:160}")
+    private int summaryLength;
+    
+    @Value("${article.render.toc-max-level:3}")
+    private int tocMaxLevel;
+    
+    @Value("${article.render.backfill:true}")
+    private boolean backfill;
+    
+    @Value("${article.render.backfill-batch-size:500}")
+    private int backfillBatchSize;
+    
+    private MarkdownRenderer renderer;
+    
+    private BlockingQueue<Long> queue;
+    
+    /**
+     * 已在队列中的文章ID，同一篇文章排队期间的多次修改只渲染一次
+     */
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    
+    private Thread worker;
+    
+    private volatile boolean running;
+    
+    private final LatencyRecorder renderLatency = new LatencyRecorder("article-render", 60000);
+    
+    private final LongAdder rendered = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder droppedQueueFull = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+    private final LongAdder summariesWritten = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        renderer = new MarkdownRenderer(summaryLength, tocMaxLevel);
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::renderLoop, "article-render");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    /**
+     * 停止渲染线程；队列中未处理的文章在读取详情时重新提交，新建的文章由启动时的补渲染处理
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(5000);
+    }
+    
+    /**
+     * 提交渲染；队列已满时丢弃，下次读取详情或启动补渲染时会重新提交
+     */
+    public void submit(Long articleId) {
+        if (!running || !queued.add(articleId)) {
+            return;
+        }
+        if (!queue.offer(articleId)) {
+            queued.remove(articleId);
+            droppedQueueFull.increment();
+        }
+    }
+    
+    /**
+     * 文章变更提交后重新渲染（删除时清除渲染结果）
+     */
+    @TransactionalEventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        submit(event.getArticleId());
+    }
+    
+    /**
+     * 启动后补渲染还没有渲染结果的文章（升级前的存量文章、队列中未处理完的文章）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfill) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            long lastId = 0;
+            int total = 0;
+            try {
+                while (running) {
+                    List<Long> ids = renderMapper.selectUnrenderedIds(lastId, backfillBatchSize);
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    for (Long id : ids) {
+                        // 补渲染不挤占编辑触发的渲染，队列剩余容量不足时等待
+                        while (running && queue.remainingCapacity() < queueCapacity / 2) {
+                            Thread.sleep(100);
+                        }
+                        submit(id);
+                    }
+                    total += ids.size();
+                    lastId = ids.get(ids.size() - 1);
+                }
+                if (total > 0) {
+                    log.info("补渲染文章: {}篇", total);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("补渲染文章失败", e);
+            }
+        }, "article-render-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * 为详情填充渲染结果；渲染结果与正文不一致或缺失时只提交渲染，不填充
+     */
+    public void applyTo(Article article) {
+        if (article == null || article.getDeleted() == null || article.getDeleted() == 1) {
+            return;
+        }
+        ArticleRender render = renderMapper.selectById(article.getId());
+        if (render == null || !hash(article.getContent()).equals(render.getContentHash())) {
+            staleReads.increment();
+            submit(article.getId());
+            return;
+        }
+        article.setContentHtml(render.getContentHtml());
+        article.setWordCount(render.getWordCount());
+        article.setReadingMinutes(render.getReadingMinutes());
+        article.setRenderedAt(render.getRenderedAt());
+        if (render.getToc() != null) {
+            try {
+                article.setToc(objectMapper.readValue(render.getToc(), TOC_TYPE));
+            } catch (JsonProcessingException e) {
+                log.warn("文章目录解析失败: {}", article.getId(), e);
+            }
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("rendered", rendered.sum());
+        stats.put("unchanged", unchanged.sum());
+        stats.put("failures", failures.sum());
+        stats.put("droppedQueueFull", droppedQueueFull.sum());
+        stats.put("staleReads", staleReads.sum());
+        stats.put("summariesWritten", summariesWritten.sum());
+        stats.put("renderLatency", renderLatency.stats());
+        return stats;
+    }
+    
+    static String hash(String content) {
+        return DigestUtils.md5DigestAsHex((content == null ? "" : content).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private void renderLoop() {
+        while (running) {
+            Long id;
+            try {
+                id = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (id == null) {
+                continue;
+            }
+            // 先移出去重集合，渲染期间的修改会再次入队
+            queued.remove(id);
+            long start = System.nanoTime();
+            try {
+                render(id);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("文章渲染失败: {}", id, e);
+            } finally {
+                renderLatency.record(System.nanoTime() - start);
+            }
+        }
+    }
+    
+    private void render(Long id) {
+        Article article = articleMapper.selectById(id);
+        if (article == null) {
+            renderMapper.deleteById(id);
+            return;
+        }
+        String hash = hash(article.getContent());
+        ArticleRender previous = renderMapper.selectById(id);
+        // 摘要与上次自动生成的不同，说明是作者填写的（作者摘要不记录在 article_renders 中）
+        boolean fromClient = StringUtils.hasText(article.getSummary())
+                && (previous == null || !article.getSummary().equals(previous.getSummary()));
+        if (previous != null && hash.equals(previous.getContentHash())
+                && fromClient == ArticleRender.SUMMARY_CLIENT.equals(previous.getSummarySource())) {
+            unchanged.increment();
+            return;
+        }
+        
+        MarkdownRenderer.Rendered result = renderer.render(article.getContent());
+        ArticleRender render = new ArticleRender();
+        render.setArticleId(id);
+        render.setContentHash(hash);
+        render.setContentHtml(result.getHtml());
+        render.setWordCount(result.getWordCount());
+        render.setReadingMinutes(result.getReadingMinutes());
+        render.setRenderedAt(LocalDateTime.now());
+        try {
+            render.setToc(objectMapper.writeValueAsString(result.getToc()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        if (fromClient) {
+            render.setSummarySource(ArticleRender.SUMMARY_CLIENT);
+        } else if (previous != null && ArticleRender.SUMMARY_AI.equals(previous.getSummarySource())
+                && hash.equals(previous.getContentHash())) {
+            // 正文没变，保留模型生成的摘要
+            render.setSummarySource(ArticleRender.SUMMARY_AI);
+            render.setSummary(previous.getSummary());
+        } else {
+            render.setSummarySource(ArticleRender.SUMMARY_EXTRACT);
+            render.setSummary(result.getSummary());
+        }
+        renderMapper.upsert(render);
+        rendered.increment();
+        
+        boolean summaryChanged = false;
+        if (!fromClient && StringUtils.hasText(render.getSummary()) && !render.getSummary().equals(article.getSummary())) {
+            summaryChanged = articleMapper.updateAutoSummary(id, render.getSummary(),
+                    previous == null ? null : previous.getSummary()) > 0;
+            if (summaryChanged) {
+                summariesWritten.increment();
+            }
+        }
+        eventPublisher.publishEvent(new ArticleRenderedEvent(id, summaryChanged));
+    }
+}
@@ -0,0 +1,255 @@
+package com.blog.render;
+
+import com.blog.dto.TocEntry;
+import com.blog.search.CjkTokenizer;
+import lombok.Getter;
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Code;
+import org.commonmark.node.Heading;
+import org.commonmark.node.HardLineBreak;
+import org.commonmark.node.Link;
+import org.commonmark.node.Node;
+import org.commonmark.node.Paragraph;
+import org.commonmark.node.SoftLineBreak;
+import org.commonmark.node.Text;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.AttributeProvider;
+import org.commonmark.renderer.html.DefaultUrlSanitizer;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.renderer.text.TextContentRenderer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Markdown 渲染：HTML、目录、摘要、字数和阅读时间
+ *
+ * 正文中的原始HTML一律转义输出，链接和图片地址只保留 http、https、mailto 和相对地址，渲染结果可直接插入页面。
+ * 标题按文档顺序生成锚点id（重复时追加序号），目录使用同样的规则，两者一一对应。线程安全。
+ */
+public class MarkdownRenderer {
+    
+    /**
+     * 每分钟阅读的汉字数
+     */
+    private static final int CJK_CHARS_PER_MINUTE = 300;
+    
+    /**
+     * 每分钟阅读的英文单词数
+     */
+    private static final int WORDS_PER_MINUTE = 200;
+    
+    private static final String SENTENCE_ENDS = "。！？!?";
+    
+    private final Parser parser;
+    
+    private final HtmlRenderer htmlRenderer;
+    
+    private final TextContentRenderer textRenderer;
+    
+    private final int summaryLength;
+    
+    private final int tocMaxLevel;
+    
+    /**
+     * @param summaryLength 提取摘要的最大字符数
+     * @param tocMaxLevel   目录收录的最深标题级别
+     */
+    public MarkdownRenderer(int summaryLength, int tocMaxLevel) {
+        this.summaryLength = summaryLength;
+        this.tocMaxLevel = tocMaxLevel;
+        List<Extension> extensions = List.of(TablesExtension.create());
+        this.parser = Parser.builder().extensions(extensions).build();
+        this.htmlRenderer = HtmlRenderer.builder()
+                .extensions(extensions)
+                .escapeHtml(true)
+                .sanitizeUrls(true)
+                .urlSanitizer(new DefaultUrlSanitizer())
+                // 每次渲染创建新的实例，标题id的去重范围是单篇文章
+                .attributeProviderFactory(context -> new HeadingIdProvider())
+                .build();
+        this.textRenderer = TextContentRenderer.builder().extensions(extensions).build();
+    }
+    
+    public Rendered render(String markdown) {
+        Node document = parser.parse(markdown == null ? "" : markdown);
+        String html = htmlRenderer.render(document);
+        
+        List<TocEntry> toc = new ArrayList<>();
+        StringBuilder summary = new StringBuilder();
+        Set<String> usedIds = new HashSet<>();
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Heading heading) {
+                String text = plainText(heading);
+                String id = uniqueId(text, usedIds);
+                if (heading.getLevel() <= tocMaxLevel && !text.isEmpty()) {
+                    toc.add(new TocEntry(heading.getLevel(), id, text));
+                }
+            }
+            
+            @Override
+            public void visit(Paragraph paragraph) {
+                // 开头的段落够长时只用它，过短（如一句引言）时接着取后面的段落
+                if (summary.length() < summaryLength / 2) {
+                    String text = plainText(paragraph);
+                    if (!text.isEmpty()) {
+                        summary.append(summary.length() > 0 ? " " : "").append(text);
+                    }
+                }
+                visitChildren(paragraph);
+            }
+        });
+        
+        int[] counts = countWords(textRenderer.render(document));
+        int minutes = (int) Math.ceil((double) counts[0] / CJK_CHARS_PER_MINUTE + (double) counts[1] / WORDS_PER_MINUTE);
+        return new Rendered(html, toc, counts[0] + counts[1], Math.max(1, minutes), truncate(summary.toString()));
+    }
+    
+    /**
+     * 截取摘要：优先在上限内的最后一个句末处截断，句子过长时硬截断并加省略号
+     */
+    private String truncate(String text) {
+        String normalized = text.replaceAll("\\s+", " ").trim();
+        if (normalized.codePointCount(0, normalized.length()) <= summaryLength) {
+            return normalized;
+        }
+        String head = normalized.substring(0, normalized.offsetByCodePoints(0, summaryLength));
+        for (int i = head.length() - 1; i >= head.length() / 2; i--) {
+            if (SENTENCE_ENDS.indexOf(head.charAt(i)) >= 0) {
+                return head.substring(0, i + 1);
+            }
+        }
+        return head.trim() + "…";
+    }
+    
+    /**
+     * 统计字数：[汉字、假名、谚文数, 其余字母数字连续片段数]
+     */
+    private static int[] countWords(String text) {
+        int cjk = 0;
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (CjkTokenizer.isCjk(cp)) {
+                cjk++;
+                inWord = false;
+            } else if (Character.isLetterOrDigit(cp)) {
+                if (!inWord) {
+                    words++;
+                }
+                inWord = true;
+            } else {
+                inWord = false;
+            }
+        }
+        return new int[]{cjk, words};
+    }
+    
+    /**
+     * 节点内的纯文本（文字和行内代码，换行视为空格）
+     */
+    private static String plainText(Node node) {
+        StringBuilder builder = new StringBuilder();
+        node.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Text text) {
+                builder.append(text.getLiteral());
+            }
+            
+            @Override
+            public void visit(Code code) {
+                builder.append(code.getLiteral());
+            }
+            
+            @Override
+            public void visit(SoftLineBreak softLineBreak) {
+                builder.append(' ');
+            }
+            
+            @Override
+            public void visit(HardLineBreak hardLineBreak) {
+                builder.append(' ');
+            }
+        });
+        return builder.toString().trim();
+    }
+    
+    /**
+     * 标题锚点id：小写，空白转为连字符，只保留字母、数字、中日韩字符、连字符和下划线；重复时追加 -1、-2…
+     */
+    private static String uniqueId(String text, Set<String> usedIds) {
+        StringBuilder slug = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp) || cp == '-' || cp == '_') {
+                slug.appendCodePoint(Character.toLowerCase(cp));
+            } else if (Character.isWhitespace(cp) && slug.length() > 0 && slug.charAt(slug.length() - 1) != '-') {
+                slug.append('-');
+            }
+        }
+        String base = slug.length() == 0 ? "section" : slug.toString().replaceAll("-+$", "");
+        String id = base;
+        for (int n = 1; !usedIds.add(id); n++) {
+            id = base + "-" + n;
+        }
+        return id;
+    }
+    
+    /**
+     * 为标题加锚点id，为外部链接加 rel，避免传递来源页和被打开页面操作 window.opener
+     */
+    private static final class HeadingIdProvider implements AttributeProvider {
+        
+        private final Set<String> usedIds = new HashSet<>();
+        
+        @Override
+        public void setAttributes(Node node, String tagName, Map<String, String> attributes) {
+            if (node instanceof Heading) {
+                attributes.put("id", uniqueId(plainText(node), usedIds));
+            } else if (node instanceof Link) {
+                String href = attributes.get("href");
+                if (href != null && href.toLowerCase(Locale.ROOT).matches("^https?:.*")) {
+                    attributes.put("rel", "nofollow noopener noreferrer");
+                }
+            }
+        }
+    }
+    
+    /**
+     * 渲染结果
+     */
+    @Getter
+    public static final class Rendered {
+        
+        private final String html;
+        
+        private final List<TocEntry> toc;
+        
+        private final int wordCount;
+        
+        private final int readingMinutes;
+        
+        /**
+         * 从正文段落提取的摘要，正文没有段落时为空字符串
+         */
+        private final String summary;
+        
+        private Rendered(String html, List<TocEntry> toc, int wordCount, int readingMinutes, String summary) {
+            this.html = html;
+            this.toc = toc;
+            this.wordCount = wordCount;
+            this.readingMinutes = readingMinutes;
+            this.summary = summary;
+        }
+    }
+}
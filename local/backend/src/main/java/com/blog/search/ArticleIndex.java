@@ -0,0 +1,21 @@
+package com.blog.search;
+
+import com.blog.entity.Article;
+
+/**
+ * 按文章ID维护的内存索引
+ */
+public interface ArticleIndex {
+    
+    /**
+     * 新增或替换文章，不应收录的文章（如已删除）直接移除
+     */
+    void put(Article article);
+    
+    void remove(Long id);
+    
+    /**
+     * 已收录的文章数
+     */
+    int size();
+}
@@ -0,0 +1,296 @@
+package com.blog.search;
+
+import com.blog.entity.Article;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文章倒排索引（内存）
+ *
+ * 标题和正文分别建立词项频次，检索时要求包含查询的全部词项，按BM25打分（标题加权）。
+ * 索引只保存词项与少量过滤字段，不保存正文。倒排表为按文章ID升序的 int 数组及平行的词频数组，
+ * 求交集时在较长的表上从上次位置起二分查找。中文除二元组外还索引单字，单字查询也能命中。
+ */
+public class ArticleSearchIndex implements ArticleIndex {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 3;
+    
+    /**
+     * 词项 -> 倒排表
+     */
+    private final Map<String, PostingList> postings = new HashMap<>();
+    
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    
+    private long totalLength;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * 新增或替换文章（已删除的文章直接移除）
+     */
+    @Override
+    public void put(Article article) {
+        if (article.getDeleted() != null && article.getDeleted() == 1) {
+            remove(article.getId());
+            return;
+        }
+        int id = Math.toIntExact(article.getId());
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : CjkTokenizer.tokenizeForIndex(article.getTitle())) {
+            frequencies.merge(token, TITLE_BOOST, Integer::sum);
+        }
+        int length = 0;
+        for (String token : CjkTokenizer.tokenizeForIndex(article.getContent())) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            PostingList[] lists = new PostingList[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                PostingList list = postings.computeIfAbsent(entry.getKey(), PostingList::new);
+                list.put(id, entry.getValue());
+                lists[i++] = list;
+            }
+            docs.put(id, new Doc(article.getCategory(), article.getStatus(), length, lists));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(Math.toIntExact(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 检索已发布的文章
+     *
+     * @param query    查询语句
+     * @param category 分类过滤，可为空
+     * @param offset   跳过的结果数
+     * @param limit    返回的结果数
+     */
+    public Hits search(String query, String category, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(CjkTokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return new Hits(0, Collections.emptyList(), Collections.emptyList());
+        }
+        
+        lock.readLock().lock();
+        try {
+            // 从最短的倒排表开始求交集
+            PostingList[] lists = new PostingList[terms.size()];
+            int k = 0;
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return new Hits(0, Collections.emptyList(), new ArrayList<>(terms));
+                }
+                lists[k++] = list;
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            
+            int n = docs.size();
+            double avgLength = n == 0 ? 1 : Math.max(1.0, (double) totalLength / n);
+            double[] idfs = new double[lists.length];
+            for (int j = 0; j < lists.length; j++) {
+                idfs[j] = Math.log(1 + (n - lists[j].size + 0.5) / (lists[j].size + 0.5));
+            }
+            int[] cursors = new int[lists.length];
+            int[] tfs = new int[lists.length];
+            List<ScoredDoc> matched = new ArrayList<>();
+            PostingList first = lists[0];
+            candidates:
+            for (int i = 0; i < first.size; i++) {
+                int id = first.ids[i];
+                tfs[0] = first.tfs[i];
+                for (int j = 1; j < lists.length; j++) {
+                    // 候选ID递增，后续查找从上次的位置开始
+                    int pos = Arrays.binarySearch(lists[j].ids, cursors[j], lists[j].size, id);
+                    if (pos < 0) {
+                        cursors[j] = -pos - 1;
+                        continue candidates;
+                    }
+                    cursors[j] = pos;
+                    tfs[j] = lists[j].tfs[pos];
+                }
+                Doc doc = docs.get(id);
+                if (doc == null || !Objects.equals(doc.status, 1)
+                        || (category != null && !category.isEmpty() && !category.equals(doc.category))) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * doc.length / avgLength);
+                double score = 0;
+                for (int j = 0; j < lists.length; j++) {
+                    score += idfs[j] * tfs[j] * (K1 + 1) / (tfs[j] + norm);
+                }
+                matched.add(new ScoredDoc(id, score));
+            }
+            
+            matched.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Long.compare(b.id, a.id));
+            List<ScoredDoc> page = offset >= matched.size()
+                    ? Collections.emptyList()
+                    : new ArrayList<>(matched.subList(offset, Math.min(matched.size(), offset + limit)));
+            return new Hits(matched.size(), page, new ArrayList<>(terms));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void removeLocked(int id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length;
+        for (PostingList list : doc.lists) {
+            list.remove(id);
+            if (list.size == 0) {
+                postings.remove(list.term);
+            }
+        }
+    }
+    
+    /**
+     * 倒排表：按文章ID升序的ID数组与平行的加权词频数组
+     *
+     * 重建按ID升序写入，新增文章的ID也最大，插入通常是追加。
+     */
+    private static final class PostingList {
+        private final String term;
+        private int[] ids = new int[1];
+        private int[] tfs = new int[1];
+        private int size;
+        
+        private PostingList(String term) {
+            this.term = term;
+        }
+        
+        private void put(int id, int tf) {
+            int pos = size > 0 && ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                tfs[pos] = tf;
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                tfs = Arrays.copyOf(tfs, capacity);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(tfs, pos, tfs, pos + 1, size - pos);
+            ids[pos] = id;
+            tfs[pos] = tf;
+            size++;
+        }
+        
+        private void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(tfs, pos + 1, tfs, pos, size - pos - 1);
+            size--;
+        }
+    }
+    
+    /**
+     * 文章的过滤字段和长度，以及它出现过的倒排表（删除时逐个移除）
+     */
+    private static final class Doc {
+        private final String category;
+        private final Integer status;
+        private final int length;
+        private final PostingList[] lists;
+        
+        private Doc(String category, Integer status, int length, PostingList[] lists) {
+            this.category = category;
+            this.status = status;
+            this.length = length;
+            this.lists = lists;
+        }
+    }
+    
+    /**
+     * 命中文章及得分
+     */
+    public static final class ScoredDoc {
+        private final long id;
+        private final double score;
+        
+        ScoredDoc(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+        
+        public long getId() {
+            return id;
+        }
+        
+        public double getScore() {
+            return score;
+        }
+    }
+    
+    /**
+     * 检索结果：命中总数、当前页、查询词项（用于高亮）
+     */
+    public static final class Hits {
+        private final int total;
+        private final List<ScoredDoc> docs;
+        private final List<String> terms;
+        
+        Hits(int total, List<ScoredDoc> docs, List<String> terms) {
+            this.total = total;
+            this.docs = docs;
+            this.terms = terms;
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+        
+        public List<ScoredDoc> getDocs() {
+            return docs;
+        }
+        
+        public List<String> getTerms() {
+            return terms;
+        }
+    }
+}
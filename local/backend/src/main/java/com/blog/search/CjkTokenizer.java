@@ -0,0 +1,91 @@
+package com.blog.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 中英文混合分词器
+ *
+ * 中日韩字符按二元组（bigram）切分，单个字符的片段保留为一元；
+ * 字母数字按连续片段切分并转为小写；其余字符作为分隔符。
+ * 建索引时中日韩片段另外输出每个字的一元，使单字查询也能命中多字片段中的字。
+ */
+public final class CjkTokenizer {
+    
+    private CjkTokenizer() {
+    }
+    
+    /**
+     * 查询分词
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, false);
+    }
+    
+    /**
+     * 建索引分词：在查询分词的基础上，多字的中日韩片段额外输出每个字的一元
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+    
+    private static List<String> tokenize(String text, boolean unigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                flushWord(word, tokens);
+                cjk.appendCodePoint(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushCjk(cjk, tokens, unigrams);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjk, tokens, unigrams);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjk, tokens, unigrams);
+        return tokens;
+    }
+    
+    public static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+    
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString().toLowerCase(Locale.ROOT));
+            word.setLength(0);
+        }
+    }
+    
+    private static void flushCjk(StringBuilder cjk, List<String> tokens, boolean unigrams) {
+        if (cjk.length() == 0) {
+            return;
+        }
+        int[] cps = cjk.codePoints().toArray();
+        if (cps.length == 1) {
+            tokens.add(new String(cps, 0, 1));
+        } else {
+            for (int i = 0; i + 1 < cps.length; i++) {
+                tokens.add(new String(cps, i, 2));
+            }
+            if (unigrams) {
+                for (int i = 0; i < cps.length; i++) {
+                    tokens.add(new String(cps, i, 1));
+                }
+            }
+        }
+        cjk.setLength(0);
+    }
+}
@@ -0,0 +1,267 @@
+package com.blog.search;
+
+import com.blog.entity.Article;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文章分类/标签索引（内存，压缩位图）
+ *
+ * 只收录已发布的文章：分类 -> 文章ID位图，标签 -> 文章ID位图，
+ * 多条件查询为位图求交集，计数为交集基数，不需要物化中间结果。
+ */
+public class FacetIndex implements ArticleIndex {
+    
+    private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+    
+    private final Map<String, RoaringBitmap> byTag = new HashMap<>();
+    
+    private final RoaringBitmap all = new RoaringBitmap();
+    
+    /**
+     * 文章ID -> 已收录的分类和标签（用于更新和删除时撤销）
+     */
+    private final Map<Integer, Facets> docs = new HashMap<>();
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * 新增或替换文章，未发布或已删除的文章直接移除
+     */
+    @Override
+    public void put(Article article) {
+        int id = Math.toIntExact(article.getId());
+        boolean visible = Integer.valueOf(1).equals(article.getStatus())
+                && (article.getDeleted() == null || article.getDeleted() == 0);
+        Facets facets = visible ? new Facets(normalize(article.getCategory()), parseTags(article.getTags())) : null;
+        
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (facets != null) {
+                all.add(id);
+                if (facets.category != null) {
+                    byCategory.computeIfAbsent(facets.category, k -> new RoaringBitmap()).add(id);
+                }
+                for (String tag : facets.tags) {
+                    byTag.computeIfAbsent(tag, k -> new RoaringBitmap()).add(id);
+                }
+                docs.put(id, facets);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(Math.toIntExact(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 按分类和标签（全部满足）查询文章ID，按ID倒序（即创建顺序倒序）分页
+     */
+    public Hits query(String category, Collection<String> tags, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matched = filter(category, tags);
+            List<Long> ids = new ArrayList<>(limit);
+            IntIterator it = matched.getReverseIntIterator();
+            int skipped = 0;
+            while (it.hasNext() && ids.size() < limit) {
+                int id = it.next();
+                if (skipped++ >= offset) {
+                    ids.add((long) id);
+                }
+            }
+            return new Hits(matched.getCardinality(), ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 在当前筛选条件下统计各分类、各标签的文章数
+     *
+     * 分类计数只受标签条件约束（便于切换分类），标签计数受分类和已选标签共同约束。
+     *
+     * @param tagLimit 返回的标签数上限（按文章数倒序）
+     */
+    public Map<String, Object> facets(String category, Collection<String> tags, int tagLimit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap byTags = filter(null, tags);
+            RoaringBitmap matched = filter(category, tags);
+            
+            Map<String, Integer> categories = new LinkedHashMap<>();
+            for (Map.Entry<String, RoaringBitmap> entry : byCategory.entrySet()) {
+                int count = RoaringBitmap.andCardinality(entry.getValue(), byTags);
+                if (count > 0) {
+                    categories.put(entry.getKey(), count);
+                }
+            }
+            
+            List<Map.Entry<String, Integer>> tagCounts = new ArrayList<>();
+            for (Map.Entry<String, RoaringBitmap> entry : byTag.entrySet()) {
+                int count = RoaringBitmap.andCardinality(entry.getValue(), matched);
+                if (count > 0) {
+                    tagCounts.add(Map.entry(entry.getKey(), count));
+                }
+            }
+            tagCounts.sort((a, b) -> a.getValue().equals(b.getValue())
+                    ? a.getKey().compareTo(b.getKey()) : Integer.compare(b.getValue(), a.getValue()));
+            Map<String, Integer> tagMap = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : tagCounts.subList(0, Math.min(tagLimit, tagCounts.size()))) {
+                tagMap.put(entry.getKey(), entry.getValue());
+            }
+            
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("total", matched.getCardinality());
+            result.put("categories", sortByCount(categories));
+            result.put("tags", tagMap);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 解析逗号分隔的标签（兼容中文逗号），去空白去重
+     */
+    public static Set<String> parseTags(String tags) {
+        if (tags == null || tags.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String tag : tags.split("[,，]")) {
+            String normalized = normalize(tag);
+            if (normalized != null) {
+                result.add(normalized);
+            }
+        }
+        return result;
+    }
+    
+    private RoaringBitmap filter(String category, Collection<String> tags) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        String normalizedCategory = normalize(category);
+        if (normalizedCategory != null) {
+            bitmaps.add(byCategory.getOrDefault(normalizedCategory, new RoaringBitmap()));
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                String normalized = normalize(tag);
+                if (normalized != null) {
+                    bitmaps.add(byTag.getOrDefault(normalized, new RoaringBitmap()));
+                }
+            }
+        }
+        if (bitmaps.isEmpty()) {
+            return all;
+        }
+        // 从基数最小的位图开始求交集
+        bitmaps.sort((a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+        RoaringBitmap result = bitmaps.get(0).clone();
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result.and(bitmaps.get(i));
+        }
+        return result;
+    }
+    
+    private void removeLocked(int id) {
+        Facets facets = docs.remove(id);
+        if (facets == null) {
+            return;
+        }
+        all.remove(id);
+        if (facets.category != null) {
+            removeFrom(byCategory, facets.category, id);
+        }
+        for (String tag : facets.tags) {
+            removeFrom(byTag, tag, id);
+        }
+    }
+    
+    private static void removeFrom(Map<String, RoaringBitmap> map, String key, int id) {
+        RoaringBitmap bitmap = map.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+    
+    private static Map<String, Integer> sortByCount(Map<String, Integer> counts) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+    
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+    
+    public static final class Hits {
+        private final int total;
+        private final List<Long> ids;
+        
+        Hits(int total, List<Long> ids) {
+            this.total = total;
+            this.ids = ids;
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+        
+        public List<Long> getIds() {
+            return ids;
+        }
+    }
+    
+    private static final class Facets {
+        private final String category;
+        private final Set<String> tags;
+        
+        private Facets(String category, Set<String> tags) {
+            this.category = category;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.blog.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.mapper.ArticleMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 可重建的文章索引
+ *
+ * 全文检索和分类/标签筛选共用的构建与维护方式：启动后异步从数据库按ID分批全量构建，之后随文章增删改增量维护；
+ * 重建时在新索引上构建，完成后整体替换，期间变更的文章在替换后重新加载。
+ */
+@Slf4j
+public class RebuildableArticleIndex<I extends ArticleIndex> {
+    
+    /**
+     * 索引名称，用于日志
+     */
+    private final String name;
+    
+    private final ArticleMapper articleMapper;
+    
+    private final Supplier<I> factory;
+    
+    private final int batchSize;
+    
+    /**
+     * 重建时从数据库读取的列
+     */
+    private final String[] columns;
+    
+    private volatile I index;
+    
+    private volatile boolean ready;
+    
+    private volatile long lastRebuildMillis;
+    
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    
+    /**
+     * 重建期间发生变更的文章ID
+     */
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    
+    private final ExecutorService rebuildExecutor;
+    
+    public RebuildableArticleIndex(String name, String threadName, ArticleMapper articleMapper, Supplier<I> factory,
+                                   int batchSize, String... columns) {
+        this.name = name;
+        this.articleMapper = articleMapper;
+        this.factory = factory;
+        this.batchSize = batchSize;
+        this.columns = columns;
+        this.index = factory.get();
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * 当前索引，重建完成前为空索引
+     */
+    public I get() {
+        return index;
+    }
+    
+    /**
+     * 首次全量构建是否已完成
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * 在后台线程全量重建
+     *
+     * @return 已有重建在进行时返回false
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        changedDuringRebuild.clear();
+        rebuildExecutor.execute(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                I fresh = factory.get();
+                long lastId = 0;
+                while (true) {
+                    QueryWrapper<Article> wrapper = new QueryWrapper<>();
+                    wrapper.select(columns)
+                           .gt("id", lastId)
+                           .orderByAsc("id")
+                           .last("LIMIT " + batchSize);
+                    List<Article> batch = articleMapper.selectList(wrapper);
+                    for (Article article : batch) {
+                        fresh.put(article);
+                    }
+                    if (batch.size() < batchSize) {
+                        break;
+                    }
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+                index = fresh;
+                ready = true;
+                
+                // 重建期间的增量只写入了旧索引，替换后按ID重新加载
+                for (Long id : new ArrayList<>(changedDuringRebuild)) {
+                    changedDuringRebuild.remove(id);
+                    reindex(id);
+                }
+                lastRebuildMillis = System.currentTimeMillis() - start;
+                log.info("{}重建完成: {}篇, 耗时{}ms", name, fresh.size(), lastRebuildMillis);
+            } catch (Exception e) {
+                log.error("{}重建失败", name, e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", ready);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("documents", index.size());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+    
+    /**
+     * 文章变更提交后增量更新索引
+     */
+    public void onArticleChanged(ArticleChangedEvent event) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(event.getArticleId());
+        }
+        switch (event.getType()) {
+            case CREATED:
+                index.put(event.getArticle());
+                break;
+            case UPDATED:
+                // 更新请求中未提交的字段不会写库，以数据库中的最新值为准
+                reindex(event.getArticleId());
+                break;
+            default:
+                index.remove(event.getArticleId());
+        }
+    }
+    
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+    
+    private void reindex(Long id) {
+        Article article = articleMapper.selectById(id);
+        if (article == null) {
+            index.remove(id);
+        } else {
+            index.put(article);
+        }
+    }
+}
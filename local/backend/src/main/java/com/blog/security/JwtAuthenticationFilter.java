@@ -0,0 +1,56 @@
+package com.blog.security;
+
+import com.blog.util.JwtUtil;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JWT认证过滤器
+ *
+ * 从 Authorization: Bearer 头中读取Token，每个请求只验证一次（验签结果由JwtUtil缓存），
+ * 通过后将用户ID作为principal写入SecurityContext，角色为admin时另授予ROLE_ADMIN；
+ * Token缺失或无效时按匿名请求继续，是否放行由SecurityConfig中的访问规则决定。
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private static final List<GrantedAuthority> USER_AUTHORITIES =
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+    
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+            Arrays.asList(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+    
+    private final JwtUtil jwtUtil;
+    
+    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            JwtUtil.VerifiedToken token = jwtUtil.verify(header.substring(BEARER_PREFIX.length()).trim());
+            if (token != null) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        token.getUserId(), null, "admin".equals(token.getRole()) ? ADMIN_AUTHORITIES : USER_AUTHORITIES);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,93 @@
+package com.blog.security;
+
+import com.blog.util.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录限流（固定窗口计数）
+ *
+ * 按IP限制登录尝试次数，按（用户名, IP）限制密码错误次数；两者都在BCrypt校验之前检查，
+ * 撞库流量不会进入密码哈希线程池。错误次数按来源IP分别计数，其他IP上的恶意尝试不会锁住用户本人的登录。
+ */
+@Component
+public class LoginThrottle {
+    
+    @Value("${auth.login.max-attempts-per-ip:30}")
+    private int maxAttemptsPerIp;
+    
+    @Value("${auth.login.max-failures-per-user:5}")
+    private int maxFailuresPerUser;
+    
+    @Value("${auth.login.window:300000}")
+    private long windowMillis;
+    
+    private RateLimiter attemptsByIp;
+    
+    private RateLimiter failuresByUser;
+    
+    private final LongAdder throttled = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        attemptsByIp = new RateLimiter(maxAttemptsPerIp, windowMillis);
+        failuresByUser = new RateLimiter(maxFailuresPerUser, windowMillis);
+    }
+    
+    /**
+     * 记录一次登录尝试，超过IP限额返回false
+     */
+    public boolean tryAttempt(String ip) {
+        if (ip == null || attemptsByIp.tryAcquire(ip)) {
+            return true;
+        }
+        throttled.increment();
+        return false;
+    }
+    
+    /**
+     * 用户名从该IP登录时，当前窗口内的密码错误次数是否已达上限
+     */
+    public boolean isLocked(String username, String ip) {
+        if (failuresByUser.isExhausted(failureKey(username, ip))) {
+            throttled.increment();
+            return true;
+        }
+        return false;
+    }
+    
+    public void recordFailure(String username, String ip) {
+        failuresByUser.tryAcquire(failureKey(username, ip));
+    }
+    
+    public void recordSuccess(String username, String ip) {
+        failuresByUser.reset(failureKey(username, ip));
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedIps", attemptsByIp.size());
+        stats.put("trackedUsers", failuresByUser.size());
+        stats.put("throttled", throttled.sum());
+        return stats;
+    }
+    
+    private static String failureKey(String username, String ip) {
+        return username + "@" + ip;
+    }
+    
+    /**
+     * 清理已过期的窗口
+     */
+    @Scheduled(fixedDelayString = "${auth.login.window:300000}")
+    public void evictExpired() {
+        attemptsByIp.evictExpired();
+        failuresByUser.evictExpired();
+    }
+}
@@ -0,0 +1,56 @@
+package com.blog.service;
+
+import com.blog.common.Result;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AI对话服务接口（vLLM）
+ */
+public interface AIService {
+    
+    /**
+     * AI对话
+     *
+     * @param model        模型名，为空时使用默认模型
+     * @param sessionId    会话ID，为空时创建新会话
+     * @param sessionToken 匿名会话的凭证（创建会话时返回）
+     * @param userId       当前登录用户ID，匿名时为null
+     * @param clientKey    准入排队的分组键（用户ID或IP）
+     */
+    CompletableFuture<Result<?>> chat(String message, String model, String sessionId, String sessionToken, Long userId,
+                                      String clientKey);
+    
+    /**
+     * AI流式对话（SSE）
+     *
+     * @param model        模型名，为空时使用默认模型
+     * @param sessionId    会话ID，为空时创建新会话
+     * @param sessionToken 匿名会话的凭证（创建会话时在 session 事件中返回）
+     * @param userId       当前登录用户ID，匿名时为null
+     * @param clientKey    准入排队的分组键（用户ID或IP）
+     */
+    SseEmitter chatStream(String message, String model, String sessionId, String sessionToken, Long userId,
+                          String clientKey);
+    
+    /**
+     * 检查vLLM服务状态
+     */
+    CompletableFuture<Result<?>> checkStatus();
+    
+    /**
+     * 获取可用模型列表
+     */
+    CompletableFuture<Result<?>> getModels();
+    
+    /**
+     * 获取准入队列统计
+     */
+    Result<?> getQueueStats();
+    
+    /**
+     * 获取响应缓存统计
+     */
+    Result<?> getCacheStats();
+}
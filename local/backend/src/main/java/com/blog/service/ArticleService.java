@@ -1,10 +1,13 @@
 package com.blog.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.blog.cache.PreSerializedJson;
 import com.blog.common.Result;
 import com.blog.dto.ArticleRequest;
 import com.blog.entity.Article;
 
+import java.time.LocalDateTime;
+
 /**
  * 文章服务接口
  */
@@ -32,12 +35,52 @@ public interface ArticleService {
     
     /**
      * 分页查询文章列表
+     *
+     * @param countMode 总数的计算方式：exact 每次查询 COUNT；cached 使用缓存的总数（文章变更后失效）；
+     *                  none 不计数，只判断是否有下一页（total 为下限）。为空时使用 article.page-count.mode
+     */
+    Result<?> getArticles(Page<Article> page, String category, String keyword, String countMode);
+    
+    /**
+     * 游标分页获取文章列表（按创建时间倒序，不含正文）
+     *
+     * @param cursor   上一页返回的游标，为空时从最新文章开始
+     * @param size     每页条数
+     * @param category 分类，可为空
+     */
+    Result<?> getArticleList(String cursor, Integer size, String category);
+    
+    /**
+     * 文章缓存统计（命中率、详情接口延迟分布）
+     */
+    Result<?> getCacheStats();
+    
+    /**
+     * 文章预渲染统计（渲染队列、耗时、AI摘要）
      */
-    Result<?> getArticles(Page<Article> page, String category, String keyword);
+    Result<?> getRenderStats();
     
     /**
-     * 获取所有文章列表
+     * 获取文章详情的预序列化响应（内容与 getArticleById 一致），并记一次浏览
+     *
+     * @return 文章不存在或无法预序列化时返回null，由调用方退回 getArticleById
      */
-    Result<?> getArticleList();
+    PreSerializedJson.Bound getArticleDetailJson(Long id);
+    
+    /**
+     * 文章最后修改时间（用于条件请求校验，优先读详情缓存）
+     *
+     * @return 文章不存在或已删除时返回null
+     */
+    LocalDateTime getArticleLastModified(Long id);
+    
+    /**
+     * 记录一次文章浏览（详情未返回正文时使用，例如304响应）
+     */
+    void recordView(Long id);
+    
+    /**
+     * 文章列表版本号，任一文章增删改后变化，并按列表缓存有效期滚动（浏览量随之刷新）
+     */
+    String getListVersion();
 }
-
@@ -0,0 +1,36 @@
+package com.blog.service;
+
+import com.blog.common.Result;
+import com.blog.dto.CommentRequest;
+
+import java.util.List;
+
+/**
+ * 评论服务接口
+ */
+public interface CommentService {
+    
+    /**
+     * 发表评论
+     */
+    Result<?> addComment(CommentRequest request, Long userId);
+    
+    /**
+     * 获取文章的评论树，按顶层评论倒序游标分页
+     *
+     * @param articleId 文章ID
+     * @param cursor    上一页返回的游标，为空时从最新的顶层评论开始
+     * @param size      每页顶层评论数
+     */
+    Result<?> getCommentThread(Long articleId, String cursor, Integer size);
+    
+    /**
+     * 批量获取文章的评论数
+     */
+    Result<?> getCommentCounts(List<Long> articleIds);
+    
+    /**
+     * 评论缓存统计
+     */
+    Result<?> getStats();
+}
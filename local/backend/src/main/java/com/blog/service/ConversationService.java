@@ -0,0 +1,81 @@
+package com.blog.service;
+
+import com.blog.common.Result;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AI多轮对话会话服务接口
+ */
+public interface ConversationService {
+    
+    /**
+     * 准备本轮发送给vLLM的消息列表（历史消息 + 本轮用户消息，按上下文窗口裁剪）
+     *
+     * @param sessionId    会话ID，为空时创建新会话（ID由服务端生成，匿名用户同时签发会话凭证）
+     * @param userId       当前登录用户ID，匿名时为null
+     * @param sessionToken 匿名会话的凭证，登录用户创建的会话不需要
+     * @return 本轮对话上下文
+     * @throws SessionAccessException 会话ID格式非法、会话不存在或不属于当前调用方
+     */
+    Turn prepare(String sessionId, Long userId, String sessionToken, String userMessage);
+    
+    /**
+     * 记录一轮完成的对话
+     *
+     * @param promptTokens vLLM实际统计的prompt token数，未知时为null
+     */
+    void complete(Turn turn, String assistantReply, Integer promptTokens);
+    
+    /**
+     * 获取会话历史（开启持久化时为完整历史，否则只含未被裁剪的消息），只有会话所有者可以读取
+     */
+    Result<?> getHistory(String sessionId, Long userId, String sessionToken);
+    
+    /**
+     * 删除会话，只有会话所有者可以删除
+     */
+    Result<?> deleteSession(String sessionId, Long userId, String sessionToken);
+    
+    /**
+     * 获取会话统计（每轮发送的prompt token数等）
+     */
+    Result<?> getStats();
+    
+    /**
+     * 一轮对话的上下文
+     */
+    @Getter
+    @AllArgsConstructor
+    class Turn {
+        
+        private final String sessionId;
+        
+        /**
+         * 本轮新签发的匿名会话凭证，之后的请求需要带上；延续已有会话或登录用户创建的会话时为null
+         */
+        private final String sessionToken;
+        
+        private final String userMessage;
+        
+        /**
+         * 发送给vLLM的消息列表（OpenAI格式）
+         */
+        private final List<Map<String, String>> messages;
+    }
+    
+    /**
+     * 会话ID格式非法、会话不存在或不属于当前调用方
+     */
+    class SessionAccessException extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        public SessionAccessException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.blog.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.blog.common.Result;
+import com.blog.dto.ArticleListItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文章分类/标签筛选服务接口（进程内位图索引）
+ */
+public interface FacetService {
+    
+    /**
+     * 索引是否已完成首次构建
+     */
+    boolean isReady();
+    
+    /**
+     * 按分类和标签（需全部包含）筛选已发布的文章，按创建顺序倒序
+     *
+     * @param category 分类，可为空
+     * @param tags     标签，可为空
+     * @param page     页码（从1开始）
+     * @param size     每页条数
+     * @return 索引未就绪时返回null
+     */
+    Page<ArticleListItem> filter(String category, List<String> tags, int page, int size);
+    
+    /**
+     * 当前筛选条件下各分类、各标签的文章数
+     *
+     * @return 索引未就绪时返回null
+     */
+    Map<String, Object> facets(String category, List<String> tags);
+    
+    /**
+     * 从数据库重建索引（异步执行，完成后整体替换）
+     */
+    Result<?> rebuild();
+    
+    /**
+     * 索引状态
+     */
+    Result<?> getStats();
+}
@@ -0,0 +1,34 @@
+package com.blog.service;
+
+import com.blog.common.Result;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 密码哈希服务接口
+ *
+ * 哈希与校验在独立的有界线程池中执行，不占用请求线程；线程池队列已满时返回的
+ * future以RejectedExecutionException异常结束。
+ */
+public interface PasswordService {
+    
+    /**
+     * 计算密码哈希
+     */
+    CompletableFuture<String> encode(String rawPassword);
+    
+    /**
+     * 校验密码
+     */
+    CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword);
+    
+    /**
+     * 已有哈希的cost是否低于当前配置，需要重新哈希
+     */
+    boolean needsRehash(String encodedPassword);
+    
+    /**
+     * 哈希耗时与线程池使用情况
+     */
+    Result<?> getStats();
+}
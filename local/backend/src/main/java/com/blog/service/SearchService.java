@@ -0,0 +1,37 @@
+package com.blog.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.blog.common.Result;
+import com.blog.dto.ArticleSearchHit;
+
+/**
+ * 文章全文检索服务接口（进程内倒排索引）
+ */
+public interface SearchService {
+    
+    /**
+     * 索引是否已完成首次构建
+     */
+    boolean isReady();
+    
+    /**
+     * 检索已发布的文章，按相关度排序
+     *
+     * @param keyword  关键词
+     * @param category 分类，可为空
+     * @param page     页码（从1开始）
+     * @param size     每页条数
+     * @return 索引未就绪时返回null
+     */
+    Page<ArticleSearchHit> search(String keyword, String category, int page, int size);
+    
+    /**
+     * 从数据库重建索引（异步执行，完成后整体替换）
+     */
+    Result<?> rebuild();
+    
+    /**
+     * 索引状态
+     */
+    Result<?> getStats();
+}
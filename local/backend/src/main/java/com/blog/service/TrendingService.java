@@ -0,0 +1,21 @@
+package com.blog.service;
+
+import com.blog.common.Result;
+
+/**
+ * 热门文章服务接口
+ */
+public interface TrendingService {
+    
+    /**
+     * 记录一次浏览
+     */
+    void recordView(Long articleId);
+    
+    /**
+     * 获取热门文章（读取定时计算的快照，不访问数据库）
+     *
+     * @param limit 条数
+     */
+    Result<?> getTrending(Integer limit);
+}
@@ -5,20 +5,29 @@ import com.blog.dto.LoginRequest;
 import com.blog.dto.RegisterRequest;
 import com.blog.entity.User;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 用户服务接口
  */
 public interface UserService {
     
     /**
-     * 用户注册
+     * 用户注册（密码哈希在独立线程池中异步执行）
+     */
+    CompletableFuture<Result<?>> register(RegisterRequest request);
+    
+    /**
+     * 用户登录（密码校验在独立线程池中异步执行）
+     *
+     * @param clientIp 客户端IP，用于登录限流
      */
-    Result<?> register(RegisterRequest request);
+    CompletableFuture<Result<?>> login(LoginRequest request, String clientIp);
     
     /**
-     * 用户登录
+     * 登录相关统计（密码哈希耗时、线程池排队、限流）
      */
-    Result<?> login(LoginRequest request);
+    Result<?> getAuthStats();
     
     /**
      * 获取用户信息
@@ -0,0 +1,25 @@
+package com.blog.service;
+
+/**
+ * 文章浏览量服务接口（内存累加，定时批量写回）
+ */
+public interface ViewCountService {
+    
+    /**
+     * 记录一次浏览
+     */
+    void increment(Long articleId);
+    
+    /**
+     * 合并尚未写回数据库的增量，返回对外展示的浏览量
+     *
+     * @param articleId 文章ID
+     * @param persisted 数据库中的浏览量
+     */
+    int merge(Long articleId, Integer persisted);
+    
+    /**
+     * 将缓冲的增量写回数据库
+     */
+    void flush();
+}
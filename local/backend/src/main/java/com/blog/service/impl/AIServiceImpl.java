@@ -0,0 +1,355 @@
+package com.blog.service.impl;
+
+import com.blog.client.AIAdmissionQueue;
+import com.blog.client.AIModelRegistry;
+import com.blog.client.AIResponseCache;
+import com.blog.client.AdmissionRejectedException;
+import com.blog.client.VllmClient;
+import com.blog.common.Result;
+import com.blog.metrics.AIMetrics;
+import com.blog.service.AIService;
+import com.blog.service.ConversationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AI对话服务实现类（vLLM）
+ */
+@Slf4j
+@Service
+public class AIServiceImpl implements AIService {
+    
+    @Value("${ai.vllm.timeout}")
+    private int timeout;
+    
+    @Autowired
+    private VllmClient vllmClient;
+    
+    @Autowired
+    private AIModelRegistry modelRegistry;
+    
+    @Autowired
+    private AIAdmissionQueue admissionQueue;
+    
+    @Autowired
+    private AIResponseCache responseCache;
+    
+    @Autowired
+    private ConversationService conversationService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private AIMetrics aiMetrics;
+    
+    @Autowired
+    @Qualifier("aiStreamExecutor")
+    private AsyncTaskExecutor aiStreamExecutor;
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Result<?>> chat(String message, String modelName, String sessionId, String sessionToken,
+                                             Long userId, String clientKey) {
+        if (message == null || message.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(Result.error("消息内容不能为空"));
+        }
+        AIModelRegistry.Model model = modelRegistry.resolve(modelName);
+        if (model == null) {
+            return CompletableFuture.completedFuture(Result.error("不支持的模型: " + modelName));
+        }
+        ConversationService.Turn turn;
+        try {
+            turn = conversationService.prepare(sessionId, userId, sessionToken, message);
+        } catch (ConversationService.SessionAccessException e) {
+            return CompletableFuture.completedFuture(Result.error(e.getMessage()));
+        }
+        
+        Map<String, Object> aiRequest = buildChatRequest(model, turn.getMessages(), false);
+        // 缓存命中或合并到相同的进行中请求时不占用准入名额
+        return responseCache.get(aiRequest, () -> admissionQueue.acquire(clientKey, null)
+                        .thenCompose(permit -> {
+                            long start = System.nanoTime();
+                            return vllmClient.chatCompletion(aiRequest)
+                                    .whenComplete((result, e) -> {
+                                        permit.release();
+                                        if (e == null) {
+                                            aiMetrics.recordCompletion(model.getName(), System.nanoTime() - start,
+                                                    (Map<String, Object>) result.get("usage"));
+                                        }
+                                    });
+                        }))
+                .<Result<?>>thenApply(result -> {
+                    Map<String, Object> reply = VllmClient.firstMessage(result);
+                    if (reply == null) {
+                        return Result.error("AI服务返回格式错误");
+                    }
+                    Map<String, Object> usage = (Map<String, Object>) result.get("usage");
+                    conversationService.complete(turn, (String) reply.get("content"),
+                            usage != null && usage.get("prompt_tokens") instanceof Number
+                                    ? ((Number) usage.get("prompt_tokens")).intValue() : null);
+                    
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("message", reply.get("content"));
+                    data.put("model", model.getName());
+                    data.put("usage", usage);
+                    data.put("sessionId", turn.getSessionId());
+                    if (turn.getSessionToken() != null) {
+                        data.put("sessionToken", turn.getSessionToken());
+                    }
+                    
+                    return Result.success("AI回复成功", data);
+                })
+                .exceptionally(e -> {
+                    Throwable cause = VllmClient.unwrap(e);
+                    if (cause instanceof TimeoutException) {
+                        throw new AdmissionRejectedException("AI服务排队超时，请稍后重试", admissionQueue.queueDepth());
+                    }
+                    return Result.error("AI服务调用失败: " + cause.getMessage());
+                });
+    }
+    
+    @Override
+    public SseEmitter chatStream(String message, String modelName, String sessionId, String sessionToken, Long userId,
+                                 String clientKey) {
+        SseEmitter emitter = new SseEmitter((long) timeout);
+        if (message == null || message.trim().isEmpty()) {
+            sendErrorAndComplete(emitter, "消息内容不能为空");
+            return emitter;
+        }
+        AIModelRegistry.Model model = modelRegistry.resolve(modelName);
+        if (model == null) {
+            sendErrorAndComplete(emitter, "不支持的模型: " + modelName);
+            return emitter;
+        }
+        ConversationService.Turn turn;
+        try {
+            turn = conversationService.prepare(sessionId, userId, sessionToken, message);
+        } catch (ConversationService.SessionAccessException e) {
+            sendErrorAndComplete(emitter, e.getMessage());
+            return emitter;
+        }
+        
+        // 排队已满时直接抛出，由控制器返回429；需要排队时先告知排队位置
+        CompletableFuture<AIAdmissionQueue.Permit> admission = admissionQueue.acquire(clientKey,
+                position -> sendQueuePosition(emitter, position));
+        
+        // 客户端断开/超时后放弃排队并取消上游请求
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        AtomicReference<InputStream> upstream = new AtomicReference<>();
+        Runnable cancel = () -> {
+            cancelled.set(true);
+            admission.cancel(false);
+            closeQuietly(upstream.get());
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        
+        sendEvent(emitter, "session", turn.getSessionToken() != null
+                ? Map.of("sessionId", turn.getSessionId(), "sessionToken", turn.getSessionToken())
+                : Map.of("sessionId", turn.getSessionId()));
+        admission.whenComplete((permit, e) -> {
+            if (e != null) {
+                if (!cancelled.get()) {
+                    sendErrorAndComplete(emitter, "AI服务排队超时，请稍后重试");
+                }
+                return;
+            }
+            try {
+                aiStreamExecutor.execute(() -> {
+                    try {
+                        streamChat(model, turn, emitter, cancelled, upstream);
+                    } finally {
+                        permit.release();
+                    }
+                });
+            } catch (TaskRejectedException ex) {
+                permit.release();
+                sendErrorAndComplete(emitter, "AI服务繁忙，请稍后重试");
+            }
+        });
+        return emitter;
+    }
+    
+    @Override
+    public CompletableFuture<Result<?>> checkStatus() {
+        return vllmClient.health()
+                .<Result<?>>thenApply(nodes -> nodes.stream().anyMatch(node -> Boolean.TRUE.equals(node.get("healthy")))
+                        ? Result.success("vLLM服务正常运行", nodes)
+                        : Result.error(HttpStatus.SERVICE_UNAVAILABLE.value(), "vLLM服务异常", nodes))
+                .exceptionally(e -> Result.error("vLLM服务未连接: " + VllmClient.unwrap(e).getMessage()));
+    }
+    
+    @Override
+    public CompletableFuture<Result<?>> getModels() {
+        return vllmClient.models()
+                .<Result<?>>thenApply(models -> Result.success("获取模型列表成功", models))
+                .exceptionally(e -> Result.error("无法获取模型列表: " + VllmClient.unwrap(e).getMessage()));
+    }
+    
+    @Override
+    public Result<?> getQueueStats() {
+        return Result.success(admissionQueue.stats());
+    }
+    
+    @Override
+    public Result<?> getCacheStats() {
+        return Result.success(responseCache.stats());
+    }
+    
+    /**
+     * 读取vLLM的SSE流并逐条转发给客户端。
+     * emitter.send 在客户端接收慢时阻塞，从而停止读取上游，形成背压。
+     */
+    private void streamChat(AIModelRegistry.Model model, ConversationService.Turn turn, SseEmitter emitter,
+                            AtomicBoolean cancelled, AtomicReference<InputStream> upstream) {
+        long start = System.nanoTime();
+        try {
+            VllmClient.ChatStream body = vllmClient.openChatStream(buildChatRequest(model, turn.getMessages(), true));
+            upstream.set(body);
+            if (cancelled.get()) {
+                closeQuietly(body);
+                return;
+            }
+            
+            // 拼接增量内容，流结束后写入会话历史
+            StringBuilder reply = new StringBuilder();
+            Integer promptTokens = null;
+            int completionTokens = -1;
+            long ttft = -1;
+            boolean done = false;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                String line;
+                while (!cancelled.get() && (line = reader.readLine()) != null) {
+                    // 只转发data行，忽略注释与空行
+                    String payload = VllmClient.ssePayload(line);
+                    if (payload == null) {
+                        continue;
+                    }
+                    emitter.send(SseEmitter.event().data(payload, MediaType.TEXT_PLAIN));
+                    if ("[DONE]".equals(payload)) {
+                        done = true;
+                        break;
+                    }
+                    JsonNode chunk = objectMapper.readTree(payload);
+                    String content = VllmClient.deltaContent(chunk);
+                    if (content != null) {
+                        if (ttft < 0) {
+                            ttft = System.nanoTime() - start;
+                        }
+                        reply.append(content);
+                    }
+                    JsonNode usage = chunk.path("usage");
+                    if (usage.path("prompt_tokens").isNumber()) {
+                        promptTokens = usage.path("prompt_tokens").asInt();
+                    }
+                    if (usage.path("completion_tokens").isNumber()) {
+                        completionTokens = usage.path("completion_tokens").asInt();
+                    }
+                }
+                if (!cancelled.get()) {
+                    // 未收到 [DONE] 就结束的流记为节点失败，客户端取消不计入
+                    body.finish(done);
+                }
+            }
+            if (done) {
+                aiMetrics.recordStream(model.getName(), System.nanoTime() - start, ttft,
+                        promptTokens != null ? promptTokens : -1, completionTokens);
+            }
+            if (!cancelled.get()) {
+                conversationService.complete(turn, done ? reply.toString() : null, promptTokens);
+                if (done) {
+                    emitter.complete();
+                } else {
+                    // 上游在 [DONE] 之前断开，回复不完整，告知客户端而不是正常结束
+                    sendErrorAndComplete(emitter, "AI服务连接中断，回复不完整");
+                }
+            }
+        } catch (Exception e) {
+            if (cancelled.get()) {
+                log.debug("AI流式对话已被客户端取消");
+                return;
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            sendErrorAndComplete(emitter, "AI服务调用失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 构建vLLM请求体（OpenAI兼容格式）
+     */
+    private Map<String, Object> buildChatRequest(AIModelRegistry.Model model, List<Map<String, String>> messages,
+                                                 boolean stream) {
+        Map<String, Object> aiRequest = new HashMap<>();
+        aiRequest.put("model", model.getName());
+        aiRequest.put("messages", messages);
+        aiRequest.put("max_tokens", model.getMaxTokens());
+        aiRequest.put("temperature", model.getTemperature());
+        aiRequest.put("top_p", model.getTopP());
+        aiRequest.put("stream", stream);
+        if (stream) {
+            // 最后一个数据块附带token用量
+            aiRequest.put("stream_options", Map.of("include_usage", true));
+        }
+        return aiRequest;
+    }
+    
+    private void sendQueuePosition(SseEmitter emitter, int position) {
+        sendEvent(emitter, "queue", Map.of("position", position));
+    }
+    
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("发送{}事件失败: {}", name, e.getMessage());
+        }
+    }
+    
+    private void sendErrorAndComplete(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(Result.error(message), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+    
+    private void closeQuietly(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // 取消上游请求时的关闭异常无需处理
+        }
+    }
+}
@@ -2,27 +2,159 @@ package com.blog.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.blog.cache.PreSerializedJson;
+import com.blog.cache.RemoteCache;
+import com.blog.cache.TwoLevelCache;
 import com.blog.common.Result;
+import com.blog.dto.ArticleListItem;
 import com.blog.dto.ArticleRequest;
+import com.blog.dto.ArticleSearchHit;
+import com.blog.dto.CursorPage;
 import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.event.ArticleRenderedEvent;
 import com.blog.mapper.ArticleMapper;
+import com.blog.render.AISummaryJob;
+import com.blog.render.ArticleRenderPipeline;
 import com.blog.service.ArticleService;
+import com.blog.service.SearchService;
+import com.blog.service.TrendingService;
+import com.blog.service.ViewCountService;
+import com.blog.util.LatencyRecorder;
+import com.blog.util.LocalCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 文章服务实现类
  */
+@Slf4j
 @Service
 public class ArticleServiceImpl implements ArticleService {
     
+    private static final String COUNT_EXACT = "exact";
+    
+    private static final String COUNT_CACHED = "cached";
+    
+    private static final String COUNT_NONE = "none";
+    
     @Autowired
     private ArticleMapper articleMapper;
     
+    @Autowired
+    private ViewCountService viewCountService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private SearchService searchService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ArticleRenderPipeline renderPipeline;
+    
+    @Autowired
+    private AISummaryJob aiSummaryJob;
+    
+    @Autowired(required = false)
+    private RemoteCache remoteCache;
+    
+    @Value("${article.list-cache.max-size:1000}")
+    private int listCacheSize;
+    
+    @Value("${article.list-cache.ttl:60000}")
+    private long listCacheTtl;
+    
+    @Value("${article.detail-cache.max-size:1000}")
+    private int detailCacheSize;
+    
+    @Value("${article.detail-cache.ttl:300000}")
+    private long detailCacheTtl;
+    
+    @Value("${article.detail-payload-cache.max-size:200}")
+    private int payloadCacheSize;
+    
+    @Value("${article.detail-payload-cache.compression-level:6}")
+    private int payloadCompressionLevel;
+    
+    /**
+     * getArticles 的默认计数方式：exact 每次 COUNT，cached 缓存总数，none 不计数
+     */
+    @Value("${article.page-count.mode:cached}")
+    private String defaultCountMode;
+    
+    @Value("${article.page-count.max-size:1000}")
+    private int countCacheSize;
+    
+    @Value("${article.page-count.ttl:60000}")
+    private long countCacheTtl;
+    
+    @Value("${cache.l2.ttl:1800000}")
+    private long remoteCacheTtl;
+    
+    /**
+     * 文章列表缓存，文章变更后整体失效
+     */
+    private LocalCache<String, CursorPage<ArticleListItem>> listCache;
+    
+    /**
+     * 文章详情缓存（L1本地 + 可选L2），文章更新或删除后按ID失效
+     */
+    private TwoLevelCache<Article> detailCache;
+    
+    /**
+     * 列表版本号，以启动时间为初值，避免重启后与客户端持有的旧版本号碰撞
+     */
+    private final AtomicLong listVersion = new AtomicLong(System.currentTimeMillis());
+    
+    /**
+     * 热点文章详情的预序列化响应，按文章最后修改时间校验
+     */
+    private LocalCache<Long, PreSerializedJson> payloadCache;
+    
+    /**
+     * 分页总数缓存（分类|关键词 -> 已发布文章数），文章变更后整体失效
+     */
+    private LocalCache<String, Long> countCache;
+    
+    private final LatencyRecorder detailLatency = new LatencyRecorder("article-detail", 60000);
+    
+    @PostConstruct
+    public void init() {
+        listCache = new LocalCache<>("article-list", listCacheSize, listCacheTtl);
+        detailCache = new TwoLevelCache<>("article", new LocalCache<>("article-detail", detailCacheSize, detailCacheTtl),
+                remoteCache, remoteCacheTtl, objectMapper, Article.class);
+        payloadCache = new LocalCache<>("article-payload", payloadCacheSize, detailCacheTtl);
+        countCache = new LocalCache<>("article-count", countCacheSize, countCacheTtl);
+    }
+    
     @Override
     @Transactional
     public Result<?> createArticle(ArticleRequest request, Long userId) {
@@ -36,6 +168,7 @@ public class ArticleServiceImpl implements ArticleService {
         article.setDeleted(0);
         
         articleMapper.insert(article);
+        eventPublisher.publishEvent(new ArticleChangedEvent(ArticleChangedEvent.Type.CREATED, article));
         
         return Result.success("文章创建成功", article);
     }
@@ -54,8 +187,13 @@ public class ArticleServiceImpl implements ArticleService {
         
         BeanUtils.copyProperties(request, existing);
         existing.setUpdatedAt(LocalDateTime.now());
+        // 浏览量由ViewCountService单独累加，避免整行更新覆盖
+        Integer viewCount = existing.getViewCount();
+        existing.setViewCount(null);
         
         articleMapper.updateById(existing);
+        existing.setViewCount(viewCountService.merge(id, viewCount));
+        eventPublisher.publishEvent(new ArticleChangedEvent(ArticleChangedEvent.Type.UPDATED, existing));
         
         return Result.success("文章更新成功", existing);
     }
@@ -72,30 +210,224 @@ public class ArticleServiceImpl implements ArticleService {
             return Result.error("无权限删除此文章");
         }
         
-        // 逻辑删除
-        existing.setDeleted(1);
-        existing.setUpdatedAt(LocalDateTime.now());
-        articleMapper.updateById(existing);
+        // 逻辑删除（@TableLogic字段不参与updateById，需通过deleteById写入）
+        articleMapper.deleteById(id);
+        eventPublisher.publishEvent(new ArticleChangedEvent(ArticleChangedEvent.Type.DELETED, existing));
         
         return Result.success("文章删除成功");
     }
     
     @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Result<?> getArticleById(Long id) {
-        Article article = articleMapper.selectById(id);
-        if (article == null || article.getDeleted() == 1) {
-            return Result.error("文章不存在");
+        long start = System.nanoTime();
+        try {
+            Article cached = detailCache.get(id, this::loadArticle);
+            if (cached == null || cached.getDeleted() == 1) {
+                return Result.error("文章不存在");
+            }
+            
+            // 缓存中的对象是共享的，复制后再填充浏览量
+            Article article = new Article();
+            BeanUtils.copyProperties(cached, article);
+            
+            recordView(id);
+            article.setViewCount(viewCountService.merge(id, article.getViewCount()));
+            
+            return Result.success(article);
+        } finally {
+            detailLatency.record(System.nanoTime() - start);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public PreSerializedJson.Bound getArticleDetailJson(Long id) {
+        long start = System.nanoTime();
+        try {
+            Article cached = detailCache.get(id, this::loadArticle);
+            if (cached == null || cached.getDeleted() == 1) {
+                return null;
+            }
+            PreSerializedJson template = payloadCache.getIfPresent(id);
+            if (template == null || !Objects.equals(template.getVersion(), lastModified(cached))) {
+                template = compileDetail(cached);
+                if (template == null) {
+                    return null;
+                }
+                payloadCache.put(id, template);
+            }
+            
+            recordView(id);
+            return template.bind(viewCountService.merge(id, cached.getViewCount()), System.currentTimeMillis());
+        } finally {
+            detailLatency.record(System.nanoTime() - start);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public LocalDateTime getArticleLastModified(Long id) {
+        Article cached = detailCache.get(id, this::loadArticle);
+        if (cached == null || cached.getDeleted() == 1) {
+            return null;
+        }
+        return lastModified(cached);
+    }
+    
+    @Override
+    public void recordView(Long id) {
+        // 增加浏览量（内存累加，定时批量写回）
+        viewCountService.increment(id);
+        trendingService.recordView(id);
+    }
+    
+    @Override
+    public String getListVersion() {
+        return listVersion.get() + "-" + System.currentTimeMillis() / listCacheTtl;
+    }
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Result<?> getArticles(Page<Article> page, String category, String keyword, String countMode) {
+        String mode = countMode == null || countMode.isEmpty() ? defaultCountMode : countMode;
+        if (!COUNT_EXACT.equals(mode) && !COUNT_CACHED.equals(mode) && !COUNT_NONE.equals(mode)) {
+            return Result.error("count 参数只能为 exact、cached 或 none");
+        }
+        
+        // 有关键词时走全文索引，索引未就绪时退回LIKE查询
+        if (keyword != null && !keyword.isEmpty()) {
+            Page<ArticleSearchHit> hits = searchService.search(keyword, category, (int) page.getCurrent(), (int) page.getSize());
+            if (hits != null) {
+                return Result.success(hits);
+            }
+        }
+        
+        QueryWrapper<Article> wrapper = publishedFilter(category, keyword);
+        wrapper.orderByDesc("created_at");
+        
+        if (COUNT_CACHED.equals(mode)) {
+            return Result.success(selectPageWithCachedCount(page, wrapper, category, keyword));
+        }
+        if (COUNT_NONE.equals(mode)) {
+            return Result.success(selectPageWithoutCount(page, wrapper));
         }
         
-        // 增加浏览量
-        article.setViewCount(article.getViewCount() + 1);
-        articleMapper.updateById(article);
+        Page<Article> resultPage = articleMapper.selectPage(page, wrapper);
         
-        return Result.success(article);
+        return Result.success(resultPage);
+    }
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Result<?> getArticleList(String cursor, Integer size, String category) {
+        int limit = size == null ? 10 : Math.max(1, Math.min(size, 100));
+        String[] position = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            position = decodeCursor(cursor);
+            if (position == null) {
+                return Result.error("游标格式不正确");
+            }
+        }
+        
+        String key = (category == null ? "" : category) + "|" + (cursor == null ? "" : cursor) + "|" + limit;
+        String[] after = position;
+        return Result.success(listCache.get(key, k -> loadArticleList(after, limit, category)));
+    }
+    
+    /**
+     * 文章变更提交后清空列表缓存并更新列表版本号
+     */
+    @TransactionalEventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        listVersion.incrementAndGet();
+        listCache.invalidateAll();
+        countCache.invalidateAll();
+        if (event.getType() != ArticleChangedEvent.Type.CREATED) {
+            detailCache.invalidate(event.getArticleId());
+            payloadCache.invalidate(event.getArticleId());
+        }
+    }
+    
+    /**
+     * 渲染结果更新后失效该文章的详情缓存；自动摘要有变化时列表也失效
+     */
+    @EventListener
+    public void onArticleRendered(ArticleRenderedEvent event) {
+        detailCache.invalidate(event.getArticleId());
+        payloadCache.invalidate(event.getArticleId());
+        if (event.isSummaryChanged()) {
+            listVersion.incrementAndGet();
+            listCache.invalidateAll();
+        }
     }
     
     @Override
-    public Result<?> getArticles(Page<Article> page, String category, String keyword) {
+    public Result<?> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("detail", detailCache.stats());
+        stats.put("detailLatency", detailLatency.stats());
+        stats.put("list", listCache.stats());
+        stats.put("payload", payloadCache.stats());
+        stats.put("count", countCache.stats());
+        return Result.success(stats);
+    }
+    
+    @Override
+    public Result<?> getRenderStats() {
+        Map<String, Object> stats = renderPipeline.stats();
+        stats.put("aiSummary", aiSummaryJob.stats());
+        return Result.success(stats);
+    }
+    
+    /**
+     * 文章最后修改时间：渲染结果（HTML、自动摘要）晚于正文更新时以渲染时间为准
+     */
+    private static LocalDateTime lastModified(Article article) {
+        LocalDateTime modified = article.getUpdatedAt() != null ? article.getUpdatedAt() : article.getCreatedAt();
+        if (article.getRenderedAt() != null && (modified == null || article.getRenderedAt().isAfter(modified))) {
+            return article.getRenderedAt();
+        }
+        return modified;
+    }
+    
+    /**
+     * 详情缓存的加载：文章连同预渲染结果（渲染结果过期时不填充，并提交重新渲染）
+     */
+    private Article loadArticle(Long id) {
+        Article article = articleMapper.selectById(id);
+        renderPipeline.applyTo(article);
+        return article;
+    }
+    
+    private PreSerializedJson compileDetail(Article cached) {
+        try {
+            return compileDetail(objectMapper, cached, payloadCompressionLevel);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("文章详情预序列化失败: {}", cached.getId(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * 以占位值序列化详情响应，在浏览量和时间戳处切分为模板（版本为文章的最后修改时间）
+     */
+    public static PreSerializedJson compileDetail(ObjectMapper objectMapper, Article cached, int compressionLevel)
+            throws JsonProcessingException {
+        Article article = new Article();
+        BeanUtils.copyProperties(cached, article);
+        article.setViewCount(Integer.MIN_VALUE);
+        Result<Article> result = Result.success(article);
+        result.setTimestamp(Long.MIN_VALUE);
+        return PreSerializedJson.compile(lastModified(cached), objectMapper.writeValueAsBytes(result),
+                new String[]{"\"viewCount\":" + Integer.MIN_VALUE, "\"timestamp\":" + Long.MIN_VALUE},
+                compressionLevel);
+    }
+    
+    /**
+     * 已发布文章的查询条件（分页查询与计数共用）
+     */
+    private QueryWrapper<Article> publishedFilter(String category, String keyword) {
         QueryWrapper<Article> wrapper = new QueryWrapper<>();
         wrapper.eq("deleted", 0);
         wrapper.eq("status", 1);  // 只查询已发布的文章
@@ -107,22 +439,96 @@ public class ArticleServiceImpl implements ArticleService {
         if (keyword != null && !keyword.isEmpty()) {
             wrapper.and(w -> w.like("title", keyword).or().like("content", keyword));
         }
-        
-        wrapper.orderByDesc("created_at");
-        
-        Page<Article> resultPage = articleMapper.selectPage(page, wrapper);
-        
-        return Result.success(resultPage);
+        return wrapper;
     }
     
-    @Override
-    public Result<?> getArticleList() {
+    /**
+     * 总数取自计数缓存（按分类和关键词，文章变更后失效），只查询当前页；页码超出总数时不查库
+     */
+    private Page<Article> selectPageWithCachedCount(Page<Article> page, QueryWrapper<Article> wrapper,
+                                                    String category, String keyword) {
+        String key = (category == null ? "" : category) + "|" + (keyword == null ? "" : keyword);
+        Long total = countCache.get(key, k -> articleMapper.selectCount(publishedFilter(category, keyword)));
+        page.setSearchCount(false);
+        page.setTotal(total);
+        if (page.offset() >= total) {
+            page.setRecords(new ArrayList<>());
+            return page;
+        }
+        return articleMapper.selectPage(page, wrapper);
+    }
+    
+    /**
+     * 不查总数，多取一条判断是否有下一页。total 为已知的下限：有下一页时比已翻过的条数多1，前端据此显示“下一页”
+     */
+    private Page<Article> selectPageWithoutCount(Page<Article> page, QueryWrapper<Article> wrapper) {
+        long size = Math.max(1, page.getSize());
+        wrapper.last("LIMIT " + page.offset() + ", " + (size + 1));
+        List<Article> articles = articleMapper.selectList(wrapper);
+        boolean hasMore = articles.size() > size;
+        List<Article> records = hasMore ? new ArrayList<>(articles.subList(0, (int) size)) : articles;
+        page.setSearchCount(false);
+        page.setRecords(records);
+        page.setTotal(page.offset() + records.size() + (hasMore ? 1 : 0));
+        return page;
+    }
+    
+    /**
+     * 按 (created_at, id) 键集分页查询，只取列表所需的列，多取一条判断是否有下一页
+     */
+    private CursorPage<ArticleListItem> loadArticleList(String[] after, int limit, String category) {
         QueryWrapper<Article> wrapper = new QueryWrapper<>();
-        wrapper.eq("deleted", 0)
-               .eq("status", 1)
-               .orderByDesc("created_at");
+        wrapper.select("id", "title", "summary", "category", "tags", "view_count", "created_at")
+               .eq("deleted", 0)
+               .eq("status", 1);
+        if (category != null && !category.isEmpty()) {
+            wrapper.eq("category", category);
+        }
+        if (after != null) {
+            LocalDateTime createdAt = LocalDateTime.parse(after[0]);
+            Long id = Long.valueOf(after[1]);
+            wrapper.and(w -> w.lt("created_at", createdAt)
+                    .or(o -> o.eq("created_at", createdAt).lt("id", id)));
+        }
+        wrapper.orderByDesc("created_at", "id")
+               .last("LIMIT " + (limit + 1));
         
-        return Result.success(articleMapper.selectList(wrapper));
+        List<Article> articles = articleMapper.selectList(wrapper);
+        boolean hasMore = articles.size() > limit;
+        List<ArticleListItem> records = new ArrayList<>(Math.min(articles.size(), limit));
+        for (int i = 0; i < articles.size() && i < limit; i++) {
+            ArticleListItem item = new ArticleListItem();
+            BeanUtils.copyProperties(articles.get(i), item);
+            records.add(item);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            ArticleListItem last = records.get(records.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(records, nextCursor, hasMore);
+    }
+    
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解析游标，格式不正确时返回null
+     */
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                return null;
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            return null;
+        }
     }
 }
-
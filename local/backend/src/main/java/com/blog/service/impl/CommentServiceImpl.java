@@ -0,0 +1,303 @@
+package com.blog.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.blog.comment.CommentIngestionPipeline;
+import com.blog.common.Result;
+import com.blog.dto.CommentNode;
+import com.blog.dto.CommentRequest;
+import com.blog.dto.CommentThreadPage;
+import com.blog.entity.Article;
+import com.blog.entity.Comment;
+import com.blog.entity.User;
+import com.blog.event.CommentCreatedEvent;
+import com.blog.mapper.ArticleMapper;
+import com.blog.mapper.CommentMapper;
+import com.blog.mapper.UserMapper;
+import com.blog.service.CommentService;
+import com.blog.util.LocalCache;
+import com.blog.util.RateLimiter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 评论服务实现类
+ *
+ * 发表的评论经CommentIngestionPipeline批量写入并异步审核，审核通过后才对外可见。
+ * 一篇文章的已审核评论用一条索引查询全部取出，在内存中按parentId一次遍历组装成树，
+ * 组装结果按文章缓存，有评论通过审核时失效；分页只在缓存的顶层评论列表上做游标切片。
+ */
+@Service
+public class CommentServiceImpl implements CommentService {
+    
+    @Autowired
+    private CommentMapper commentMapper;
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Autowired
+    private UserMapper userMapper;
+    
+    @Autowired
+    private CommentIngestionPipeline ingestionPipeline;
+    
+    @Value("${comment.thread-cache.max-size:500}")
+    private int threadCacheSize;
+    
+    @Value("${comment.thread-cache.ttl:300000}")
+    private long threadCacheTtl;
+    
+    @Value("${comment.count-cache.max-size:10000}")
+    private int countCacheSize;
+    
+    @Value("${comment.count-cache.ttl:600000}")
+    private long countCacheTtl;
+    
+    @Value("${comment.rate-limit.per-user:10}")
+    private int userRateLimit;
+    
+    @Value("${comment.rate-limit.window:60000}")
+    private long userRateWindow;
+    
+    /**
+     * 文章ID -> 组装好的评论树
+     */
+    private LocalCache<Long, CommentThread> threadCache;
+    
+    /**
+     * 文章ID -> 文章是否存在（发表评论时校验，避免每条评论查询文章表）
+     */
+    private LocalCache<Long, Boolean> articleExists;
+    
+    private RateLimiter userRateLimiter;
+    
+    /**
+     * 文章ID -> 已审核评论数（首次读取时从数据库统计，之后随新评论累加；条数和有效期有上限）
+     */
+    private LocalCache<Long, AtomicInteger> commentCounts;
+    
+    @PostConstruct
+    public void init() {
+        threadCache = new LocalCache<>("comment-thread", threadCacheSize, threadCacheTtl);
+        articleExists = new LocalCache<>("comment-article-exists", 10000, 60000);
+        commentCounts = new LocalCache<>("comment-count", countCacheSize, countCacheTtl);
+        userRateLimiter = new RateLimiter(userRateLimit, userRateWindow);
+    }
+    
+    @Override
+    public Result<?> addComment(CommentRequest request, Long userId) {
+        if (!userRateLimiter.tryAcquire(String.valueOf(userId))) {
+            return Result.error(429, "评论过于频繁，请稍后再试");
+        }
+        
+        if (!articleExists.get(request.getArticleId(), this::loadArticleExists)) {
+            return Result.error("文章不存在");
+        }
+        
+        // 回复的评论是否有效在审核阶段批量检查，发表接口不查询数据库
+        Comment comment = new Comment();
+        comment.setArticleId(request.getArticleId());
+        comment.setUserId(userId);
+        comment.setContent(request.getContent());
+        comment.setParentId(request.getParentId());
+        comment.setStatus(0);
+        comment.setCreatedAt(LocalDateTime.now());
+        comment.setUpdatedAt(LocalDateTime.now());
+        comment.setDeleted(0);
+        
+        if (!ingestionPipeline.submit(comment)) {
+            return Result.error(503, "评论提交繁忙，请稍后重试");
+        }
+        
+        return Result.success("评论已提交，审核通过后展示");
+    }
+    
+    @Override
+    public Result<?> getCommentThread(Long articleId, String cursor, Integer size) {
+        int limit = size == null ? 10 : Math.max(1, Math.min(size, 50));
+        Long before = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                before = Long.valueOf(cursor);
+            } catch (NumberFormatException e) {
+                return Result.error("游标格式不正确");
+            }
+        }
+        
+        CommentThread thread = threadCache.get(articleId, this::loadThread);
+        List<CommentNode> roots = thread.roots;
+        
+        // 顶层评论按ID倒序，二分定位游标之后的第一条
+        int from = 0;
+        if (before != null) {
+            int low = 0;
+            int high = roots.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (roots.get(mid).getId() >= before) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            from = low;
+        }
+        int to = Math.min(roots.size(), from + limit);
+        boolean hasMore = to < roots.size();
+        List<CommentNode> records = new ArrayList<>(roots.subList(from, to));
+        String nextCursor = hasMore ? String.valueOf(records.get(records.size() - 1).getId()) : null;
+        
+        return Result.success(new CommentThreadPage(thread.total, records, nextCursor, hasMore));
+    }
+    
+    @Override
+    public Result<?> getCommentCounts(List<Long> articleIds) {
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : articleIds) {
+            AtomicInteger count = commentCounts.getIfPresent(id);
+            if (count != null) {
+                result.put(id, count.get());
+            } else {
+                missing.add(id);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            Map<Long, Integer> loaded = new HashMap<>();
+            for (Map<String, Object> row : commentMapper.countByArticleIds(missing)) {
+                loaded.put(((Number) row.get("article_id")).longValue(), ((Number) row.get("cnt")).intValue());
+            }
+            for (Long id : missing) {
+                // 并发请求可能已先写入并开始累加，保留已有的计数
+                AtomicInteger count = commentCounts.getIfPresent(id);
+                if (count == null) {
+                    count = new AtomicInteger(loaded.getOrDefault(id, 0));
+                    commentCounts.put(id, count);
+                }
+                result.put(id, count.get());
+            }
+        }
+        return Result.success(result);
+    }
+    
+    @Override
+    public Result<?> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threadCache", threadCache.stats());
+        stats.put("countCache", commentCounts.stats());
+        stats.put("ingestion", ingestionPipeline.stats());
+        return Result.success(stats);
+    }
+    
+    @Scheduled(fixedDelayString = "${comment.rate-limit.window:60000}")
+    public void evictExpiredLimits() {
+        userRateLimiter.evictExpired();
+    }
+    
+    /**
+     * 评论审核通过后使评论树缓存失效并累加计数
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentCreated(CommentCreatedEvent event) {
+        Comment comment = event.getComment();
+        threadCache.invalidate(comment.getArticleId());
+        if (comment.getStatus() != null && comment.getStatus() == 1) {
+            AtomicInteger count = commentCounts.getIfPresent(comment.getArticleId());
+            if (count != null) {
+                count.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * 一次查询取出文章全部已审核评论，按ID正序一次遍历组装成树
+     */
+    private CommentThread loadThread(Long articleId) {
+        QueryWrapper<Comment> wrapper = new QueryWrapper<>();
+        wrapper.select("id", "article_id", "user_id", "`content`", "parent_id", "created_at")
+               .eq("article_id", articleId)
+               .eq("status", 1)
+               .eq("deleted", 0)
+               .orderByAsc("id");
+        List<Comment> comments = commentMapper.selectList(wrapper);
+        
+        Map<Long, User> users = loadUsers(comments);
+        Map<Long, CommentNode> nodes = new HashMap<>(comments.size() * 2);
+        List<CommentNode> roots = new ArrayList<>();
+        for (Comment comment : comments) {
+            CommentNode node = new CommentNode();
+            BeanUtils.copyProperties(comment, node);
+            User user = users.get(comment.getUserId());
+            if (user != null) {
+                node.setUsername(user.getUsername());
+                node.setAvatar(user.getAvatar());
+            }
+            nodes.put(comment.getId(), node);
+            
+            // 父评论ID一定小于子评论ID，正序遍历时父节点已经存在；父评论不可见时作为顶层评论展示
+            CommentNode parent = comment.getParentId() == null ? null : nodes.get(comment.getParentId());
+            if (parent != null) {
+                parent.getReplies().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        Collections.reverse(roots);
+        
+        commentCounts.put(articleId, new AtomicInteger(comments.size()));
+        return new CommentThread(roots, comments.size());
+    }
+    
+    private Boolean loadArticleExists(Long articleId) {
+        QueryWrapper<Article> wrapper = new QueryWrapper<>();
+        wrapper.eq("id", articleId).eq("deleted", 0);
+        return articleMapper.selectCount(wrapper) > 0;
+    }
+    
+    private Map<Long, User> loadUsers(List<Comment> comments) {
+        Set<Long> userIds = new HashSet<>();
+        for (Comment comment : comments) {
+            userIds.add(comment.getUserId());
+        }
+        Map<Long, User> users = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+        QueryWrapper<User> wrapper = new QueryWrapper<>();
+        wrapper.select("id", "username", "avatar").in("id", userIds);
+        for (User user : userMapper.selectList(wrapper)) {
+            users.put(user.getId(), user);
+        }
+        return users;
+    }
+    
+    /**
+     * 缓存的评论树：顶层评论按ID倒序
+     */
+    private static final class CommentThread {
+        private final List<CommentNode> roots;
+        private final int total;
+        
+        private CommentThread(List<CommentNode> roots, int total) {
+            this.roots = roots;
+            this.total = total;
+        }
+    }
+}
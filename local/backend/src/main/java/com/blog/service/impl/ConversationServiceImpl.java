@@ -0,0 +1,345 @@
+package com.blog.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.blog.common.Result;
+import com.blog.entity.ChatMessage;
+import com.blog.mapper.ChatMessageMapper;
+import com.blog.service.ConversationService;
+import com.blog.util.LocalCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * AI多轮对话会话服务实现类
+ *
+ * 会话历史保存在内存（可选写入MySQL），每轮按 max_model_len 裁剪历史。
+ * 裁剪时一次丢弃较多的旧消息，使之后若干轮的消息前缀保持不变，
+ * 从而命中vLLM的前缀缓存（enable_prefix_caching）。被裁剪的消息不再保留在内存中，
+ * 完整历史只在开启持久化时可从数据库查询。
+ *
+ * 会话ID只由服务端生成，传入不存在的ID不会创建新会话。每个会话记录所有者：登录用户为用户ID，
+ * 匿名用户为创建会话时签发的随机凭证（只保存其SHA-256），继续对话、查看和删除历史时校验。
+ */
+@Slf4j
+@Service
+public class ConversationServiceImpl implements ConversationService {
+    
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    
+    /**
+     * 每条消息在对话模板中的额外token开销（估算）
+     */
+    private static final int MESSAGE_OVERHEAD = 4;
+    
+    @Value("${ai.session.max-context-tokens:4096}")
+    private int maxContextTokens;
+    
+    @Value("${ai.vllm.max-tokens}")
+    private int maxTokens;
+    
+    @Value("${ai.session.system-prompt:}")
+    private String systemPrompt;
+    
+    @Value("${ai.session.max-sessions:10000}")
+    private int maxSessions;
+    
+    @Value("${ai.session.ttl:7200000}")
+    private long ttl;
+    
+    @Value("${ai.session.persist:false}")
+    private boolean persist;
+    
+    @Autowired
+    private ChatMessageMapper chatMessageMapper;
+    
+    private LocalCache<String, Session> sessions;
+    
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder trims = new LongAdder();
+    private final LongAdder fullPromptTokens = new LongAdder();
+    private final LongAdder sentPromptTokens = new LongAdder();
+    private final LongAdder reportedPromptTokens = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        sessions = new LocalCache<>("ai-session", maxSessions, ttl);
+    }
+    
+    @Override
+    public Turn prepare(String sessionId, Long userId, String sessionToken, String userMessage) {
+        Session session;
+        String issuedToken = null;
+        if (sessionId == null || sessionId.isEmpty()) {
+            sessionId = randomId();
+            if (userId != null) {
+                session = new Session(userOwner(userId));
+            } else {
+                issuedToken = randomId();
+                session = new Session(tokenOwner(issuedToken));
+            }
+            sessions.put(sessionId, session);
+        } else {
+            session = find(sessionId, userId, sessionToken);
+        }
+        
+        List<Map<String, String>> messages = new ArrayList<>();
+        boolean hasSystem = systemPrompt != null && !systemPrompt.isEmpty();
+        int fixedTokens = estimateTokens(userMessage) + (hasSystem ? estimateTokens(systemPrompt) : 0);
+        int budget = Math.max(0, maxContextTokens - maxTokens - fixedTokens);
+        
+        synchronized (session) {
+            int windowTokens = 0;
+            for (ChatMessage message : session.messages) {
+                windowTokens += message.getTokens();
+            }
+            int fullTokens = fixedTokens + session.droppedTokens + windowTokens;
+            
+            if (windowTokens > budget) {
+                // 一次裁剪到预算的一半，并保证窗口从用户消息开始；裁掉的消息直接丢弃
+                int target = budget / 2;
+                int dropped = 0;
+                while (dropped < session.messages.size()
+                        && (windowTokens > target || !"user".equals(session.messages.get(dropped).getRole()))) {
+                    windowTokens -= session.messages.get(dropped).getTokens();
+                    session.droppedTokens += session.messages.get(dropped).getTokens();
+                    dropped++;
+                }
+                session.messages.subList(0, dropped).clear();
+                trims.increment();
+            }
+            
+            if (hasSystem) {
+                messages.add(Map.of("role", "system", "content", systemPrompt));
+            }
+            for (ChatMessage message : session.messages) {
+                messages.add(Map.of("role", message.getRole(), "content", message.getContent()));
+            }
+            messages.add(Map.of("role", "user", "content", userMessage));
+            
+            turns.increment();
+            fullPromptTokens.add(fullTokens);
+            sentPromptTokens.add(windowTokens + fixedTokens);
+        }
+        return new Turn(sessionId, issuedToken, userMessage, messages);
+    }
+    
+    @Override
+    public void complete(Turn turn, String assistantReply, Integer promptTokens) {
+        if (promptTokens != null) {
+            reportedPromptTokens.add(promptTokens);
+        }
+        if (assistantReply == null) {
+            return;
+        }
+        // 会话在本轮进行中被删除时不再写回；只是被淘汰时从数据库重新加载
+        Session session = persist ? sessions.get(turn.getSessionId(), this::load)
+                : sessions.getIfPresent(turn.getSessionId());
+        if (session == null) {
+            log.debug("会话已不存在，丢弃本轮对话: sessionId={}", turn.getSessionId());
+            return;
+        }
+        ChatMessage user = newMessage(turn.getSessionId(), session.owner, "user", turn.getUserMessage());
+        ChatMessage assistant = newMessage(turn.getSessionId(), session.owner, "assistant", assistantReply);
+        synchronized (session) {
+            session.messages.add(user);
+            session.messages.add(assistant);
+        }
+        // 重新写入以刷新过期时间
+        sessions.put(turn.getSessionId(), session);
+        
+        if (persist) {
+            try {
+                chatMessageMapper.insert(user);
+                chatMessageMapper.insert(assistant);
+            } catch (Exception e) {
+                log.warn("保存对话消息失败, sessionId={}: {}", turn.getSessionId(), e.getMessage());
+            }
+        }
+    }
+    
+    @Override
+    public Result<?> getHistory(String sessionId, Long userId, String sessionToken) {
+        Session session;
+        try {
+            session = find(sessionId, userId, sessionToken);
+        } catch (SessionAccessException e) {
+            return Result.error(e.getMessage());
+        }
+        // 开启持久化时返回数据库中的完整历史，否则返回内存中尚未被裁剪的消息
+        if (persist) {
+            return Result.success(toHistory(selectMessages(sessionId)));
+        }
+        synchronized (session) {
+            return Result.success(toHistory(session.messages));
+        }
+    }
+    
+    @Override
+    public Result<?> deleteSession(String sessionId, Long userId, String sessionToken) {
+        try {
+            find(sessionId, userId, sessionToken);
+        } catch (SessionAccessException e) {
+            return Result.error(e.getMessage());
+        }
+        sessions.invalidate(sessionId);
+        if (persist) {
+            QueryWrapper<ChatMessage> wrapper = new QueryWrapper<>();
+            wrapper.eq("session_id", sessionId);
+            chatMessageMapper.delete(wrapper);
+        }
+        return Result.success("会话已删除");
+    }
+    
+    @Override
+    public Result<?> getStats() {
+        long turnCount = turns.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeSessions", sessions.size());
+        stats.put("turns", turnCount);
+        stats.put("trims", trims.sum());
+        // full: 不裁剪时每轮需要发送的prompt token数；sent: 实际发送的prompt token数（均为估算）
+        stats.put("avgFullPromptTokens", turnCount == 0 ? 0 : fullPromptTokens.sum() / turnCount);
+        stats.put("avgSentPromptTokens", turnCount == 0 ? 0 : sentPromptTokens.sum() / turnCount);
+        stats.put("reportedPromptTokens", reportedPromptTokens.sum());
+        stats.put("persist", persist);
+        return Result.success(stats);
+    }
+    
+    /**
+     * 取得会话并校验所有者；不属于调用方的会话与不存在的会话返回同样的错误，不暴露会话是否存在
+     */
+    private Session find(String sessionId, Long userId, String sessionToken) {
+        if (sessionId == null || !SESSION_ID.matcher(sessionId).matches()) {
+            throw new SessionAccessException("会话ID格式不正确");
+        }
+        Session session = sessions.get(sessionId, this::load);
+        if (session == null || !session.ownedBy(userId, sessionToken)) {
+            throw new SessionAccessException("会话不存在");
+        }
+        return session;
+    }
+    
+    /**
+     * 开启持久化时从数据库加载会话历史和所有者，不存在时返回null（经缓存单飞加载，并发请求得到同一个对象）
+     */
+    private Session load(String sessionId) {
+        if (!persist) {
+            return null;
+        }
+        List<ChatMessage> messages = selectMessages(sessionId);
+        // 没有记录所有者的旧消息无法校验，视为不存在
+        if (messages.isEmpty() || messages.get(0).getOwner() == null) {
+            return null;
+        }
+        Session session = new Session(messages.get(0).getOwner());
+        session.messages.addAll(messages);
+        return session;
+    }
+    
+    private List<ChatMessage> selectMessages(String sessionId) {
+        QueryWrapper<ChatMessage> wrapper = new QueryWrapper<>();
+        wrapper.eq("session_id", sessionId).orderByAsc("id");
+        return chatMessageMapper.selectList(wrapper);
+    }
+    
+    private List<Map<String, Object>> toHistory(List<ChatMessage> messages) {
+        List<Map<String, Object>> history = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("role", message.getRole());
+            item.put("content", message.getContent());
+            item.put("createdAt", message.getCreatedAt());
+            history.add(item);
+        }
+        return history;
+    }
+    
+    private ChatMessage newMessage(String sessionId, String owner, String role, String content) {
+        ChatMessage message = new ChatMessage();
+        message.setSessionId(sessionId);
+        message.setOwner(owner);
+        message.setRole(role);
+        message.setContent(content);
+        message.setTokens(estimateTokens(content));
+        message.setCreatedAt(LocalDateTime.now());
+        message.setDeleted(0);
+        return message;
+    }
+    
+    private static String randomId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+    
+    private static String userOwner(Long userId) {
+        return "user:" + userId;
+    }
+    
+    private static String tokenOwner(String sessionToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sessionToken.getBytes(StandardCharsets.UTF_8));
+            return "token:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * 估算token数：中日韩字符按1个token计，其他非空白字符按4个字符1个token计
+     */
+    static int estimateTokens(String text) {
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+            if (script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL) {
+                cjk++;
+            } else if (!Character.isWhitespace(cp)) {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4 + MESSAGE_OVERHEAD;
+    }
+    
+    /**
+     * 会话：所有者 + 当前上下文窗口内的消息 + 已裁剪消息的token数（用于统计不裁剪时的prompt大小）
+     */
+    private static class Session {
+        /**
+         * user:用户ID 或 token:凭证的SHA-256
+         */
+        private final String owner;
+        private final List<ChatMessage> messages = new ArrayList<>();
+        private int droppedTokens;
+        
+        private Session(String owner) {
+            this.owner = owner;
+        }
+        
+        private boolean ownedBy(Long userId, String sessionToken) {
+            if (userId != null && owner.equals(userOwner(userId))) {
+                return true;
+            }
+            return sessionToken != null && MessageDigest.isEqual(owner.getBytes(StandardCharsets.UTF_8),
+                    tokenOwner(sessionToken).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.blog.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.blog.common.Result;
+import com.blog.dto.ArticleListItem;
+import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.mapper.ArticleMapper;
+import com.blog.search.FacetIndex;
+import com.blog.search.RebuildableArticleIndex;
+import com.blog.service.FacetService;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文章分类/标签筛选服务实现类
+ *
+ * 筛选和计数完全在位图索引上完成，只按当前页的ID回表取列表字段，
+ * 避免 tags LIKE '%x%' 全表扫描和 GROUP BY 计数。索引的构建和维护见 {@link RebuildableArticleIndex}。
+ */
+@Service
+public class FacetServiceImpl implements FacetService {
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Value("${article.facet.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+    
+    @Value("${article.facet.max-tags:50}")
+    private int maxTags;
+    
+    private RebuildableArticleIndex<FacetIndex> index;
+    
+    @PostConstruct
+    public void init() {
+        index = new RebuildableArticleIndex<>("文章筛选索引", "facet-rebuild", articleMapper, FacetIndex::new,
+                rebuildBatchSize, "id", "category", "tags", "status", "deleted");
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        index.shutdown();
+    }
+    
+    @Override
+    public boolean isReady() {
+        return index.isReady();
+    }
+    
+    @Override
+    public Page<ArticleListItem> filter(String category, List<String> tags, int page, int size) {
+        if (!index.isReady()) {
+            return null;
+        }
+        int current = Math.max(1, page);
+        int limit = Math.max(1, Math.min(size, 100));
+        FacetIndex.Hits hits = index.get().query(category, tags, (current - 1) * limit, limit);
+        
+        Page<ArticleListItem> result = new Page<>(current, limit, hits.getTotal());
+        if (hits.getIds().isEmpty()) {
+            result.setRecords(new ArrayList<>());
+            return result;
+        }
+        
+        QueryWrapper<Article> wrapper = new QueryWrapper<>();
+        wrapper.select("id", "title", "summary", "category", "tags", "view_count", "created_at")
+               .in("id", hits.getIds());
+        Map<Long, Article> articles = new HashMap<>();
+        for (Article article : articleMapper.selectList(wrapper)) {
+            articles.put(article.getId(), article);
+        }
+        
+        List<ArticleListItem> records = new ArrayList<>(hits.getIds().size());
+        for (Long id : hits.getIds()) {
+            Article article = articles.get(id);
+            if (article == null) {
+                continue;
+            }
+            ArticleListItem item = new ArticleListItem();
+            BeanUtils.copyProperties(article, item);
+            records.add(item);
+        }
+        result.setRecords(records);
+        return result;
+    }
+    
+    @Override
+    public Map<String, Object> facets(String category, List<String> tags) {
+        if (!index.isReady()) {
+            return null;
+        }
+        return index.get().facets(category, tags, maxTags);
+    }
+    
+    @Override
+    public Result<?> rebuild() {
+        return index.rebuild() ? Result.success("索引重建已开始", null) : Result.error("索引正在重建中");
+    }
+    
+    @Override
+    public Result<?> getStats() {
+        return Result.success(index.stats());
+    }
+    
+    /**
+     * 文章变更提交后增量更新索引
+     */
+    @TransactionalEventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        index.onArticleChanged(event);
+    }
+}
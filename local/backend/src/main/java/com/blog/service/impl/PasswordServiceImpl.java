@@ -0,0 +1,92 @@
+package com.blog.service.impl;
+
+import com.blog.common.Result;
+import com.blog.service.PasswordService;
+import com.blog.util.LatencyRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希服务实现类
+ */
+@Service
+public class PasswordServiceImpl implements PasswordService {
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+    
+    private final LatencyRecorder hashLatency = new LatencyRecorder("password-hash", 60000);
+    
+    private final LatencyRecorder queueWait = new LatencyRecorder("password-queue-wait", 60000);
+    
+    private final LongAdder rejected = new LongAdder();
+    
+    @Override
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+    
+    @Override
+    public Result<?> getStats() {
+        ThreadPoolExecutor executor = passwordHashExecutor.getThreadPoolExecutor();
+        int capacity = executor.getQueue().size() + executor.getQueue().remainingCapacity();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", capacity);
+        stats.put("queueSaturation", capacity == 0 ? 0.0 : (double) executor.getQueue().size() / capacity);
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        stats.put("hashLatency", hashLatency.stats());
+        stats.put("queueWait", queueWait.stats());
+        return Result.success(stats);
+    }
+    
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            passwordHashExecutor.execute(() -> {
+                long start = System.nanoTime();
+                queueWait.record(start - submitted);
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    hashLatency.record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,203 @@
+package com.blog.service.impl;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.blog.common.Result;
+import com.blog.dto.ArticleSearchHit;
+import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.mapper.ArticleMapper;
+import com.blog.search.ArticleSearchIndex;
+import com.blog.search.RebuildableArticleIndex;
+import com.blog.service.SearchService;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文章全文检索服务实现类
+ *
+ * 索引的构建和增量维护见 {@link RebuildableArticleIndex}。
+ */
+@Service
+public class SearchServiceImpl implements SearchService {
+    
+    private static final int SNIPPET_LENGTH = 120;
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Value("${article.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+    
+    private RebuildableArticleIndex<ArticleSearchIndex> index;
+    
+    @PostConstruct
+    public void init() {
+        index = new RebuildableArticleIndex<>("文章索引", "search-rebuild", articleMapper, ArticleSearchIndex::new,
+                rebuildBatchSize, "id", "title", "`content`", "category", "status", "deleted");
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        index.shutdown();
+    }
+    
+    @Override
+    public boolean isReady() {
+        return index.isReady();
+    }
+    
+    @Override
+    public Page<ArticleSearchHit> search(String keyword, String category, int page, int size) {
+        if (!index.isReady()) {
+            return null;
+        }
+        int current = Math.max(1, page);
+        int limit = Math.max(1, Math.min(size, 100));
+        ArticleSearchIndex.Hits hits = index.get().search(keyword, category, (current - 1) * limit, limit);
+        
+        Page<ArticleSearchHit> result = new Page<>(current, limit, hits.getTotal());
+        if (hits.getDocs().isEmpty()) {
+            result.setRecords(new ArrayList<>());
+            return result;
+        }
+        
+        List<Long> ids = new ArrayList<>(hits.getDocs().size());
+        for (ArticleSearchIndex.ScoredDoc doc : hits.getDocs()) {
+            ids.add(doc.getId());
+        }
+        Map<Long, Article> articles = new HashMap<>();
+        for (Article article : articleMapper.selectBatchIds(ids)) {
+            articles.put(article.getId(), article);
+        }
+        
+        List<ArticleSearchHit> records = new ArrayList<>(ids.size());
+        for (ArticleSearchIndex.ScoredDoc doc : hits.getDocs()) {
+            Article article = articles.get(doc.getId());
+            if (article == null) {
+                continue;
+            }
+            ArticleSearchHit hit = new ArticleSearchHit();
+            BeanUtils.copyProperties(article, hit);
+            hit.setScore(doc.getScore());
+            hit.setHighlightTitle(highlight(article.getTitle(), hits.getTerms()));
+            hit.setHighlightContent(snippet(article.getContent(), hits.getTerms()));
+            records.add(hit);
+        }
+        result.setRecords(records);
+        return result;
+    }
+    
+    @Override
+    public Result<?> rebuild() {
+        return index.rebuild() ? Result.success("索引重建已开始", null) : Result.error("索引正在重建中");
+    }
+    
+    @Override
+    public Result<?> getStats() {
+        return Result.success(index.stats());
+    }
+    
+    /**
+     * 文章变更提交后增量更新索引
+     */
+    @TransactionalEventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        index.onArticleChanged(event);
+    }
+    
+    /**
+     * 截取正文中第一个命中位置附近的片段并高亮，无命中时取开头
+     */
+    private String snippet(String content, List<String> terms) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+        int first = -1;
+        for (int[] range : matchRanges(content, terms)) {
+            first = range[0];
+            break;
+        }
+        int start = Math.max(0, first - SNIPPET_LENGTH / 4);
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+        String text = content.substring(start, end);
+        return (start > 0 ? "..." : "") + highlight(text, terms) + (end < content.length() ? "..." : "");
+    }
+    
+    /**
+     * HTML转义后将命中的词项用&lt;em&gt;包裹，相邻或重叠的命中合并为一段
+     */
+    private String highlight(String text, List<String> terms) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        int pos = 0;
+        for (int[] range : matchRanges(text, terms)) {
+            escape(text, pos, range[0], sb);
+            sb.append("<em>");
+            escape(text, range[0], range[1], sb);
+            sb.append("</em>");
+            pos = range[1];
+        }
+        escape(text, pos, text.length(), sb);
+        return sb.toString();
+    }
+    
+    private List<int[]> matchRanges(String text, List<String> terms) {
+        boolean[] marked = new boolean[text.length() + 1];
+        for (String term : terms) {
+            for (int i = 0; i + term.length() <= text.length(); i++) {
+                if (text.regionMatches(true, i, term, 0, term.length())) {
+                    for (int j = i; j < i + term.length(); j++) {
+                        marked[j] = true;
+                    }
+                }
+            }
+        }
+        List<int[]> ranges = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            if (!marked[i]) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < text.length() && marked[i]) {
+                i++;
+            }
+            ranges.add(new int[]{start, i});
+        }
+        return ranges;
+    }
+    
+    private void escape(String text, int from, int to, StringBuilder sb) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '&': sb.append("&amp;"); break;
+                case '"': sb.append("&quot;"); break;
+                case '\'': sb.append("&#39;"); break;
+                default: sb.append(c);
+            }
+        }
+    }
+}
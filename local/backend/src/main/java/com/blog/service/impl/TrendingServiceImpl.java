@@ -0,0 +1,290 @@
+package com.blog.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.blog.common.Result;
+import com.blog.dto.TrendingArticle;
+import com.blog.entity.Article;
+import com.blog.event.ArticleChangedEvent;
+import com.blog.event.CommentCreatedEvent;
+import com.blog.mapper.ArticleMapper;
+import com.blog.service.TrendingService;
+import com.blog.util.LocalCache;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热门文章服务实现类
+ *
+ * 浏览和评论按文章计入当前时间桶（LongAdder，无锁）；时间桶定时轮换，
+ * 关闭的桶按半衰期衰减后累加进各文章的聚合值，超出窗口的桶从聚合值中扣除，
+ * 每次轮换只处理有计数的文章。排行由定时任务计算成不可变快照，读取时直接返回快照。
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService {
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Value("${article.trending.bucket-duration:60000}")
+    private long bucketMillis;
+    
+    @Value("${article.trending.buckets:60}")
+    private int bucketCount;
+    
+    @Value("${article.trending.half-life:1800000}")
+    private long halfLifeMillis;
+    
+    @Value("${article.trending.size:50}")
+    private int size;
+    
+    @Value("${article.trending.view-weight:1}")
+    private double viewWeight;
+    
+    @Value("${article.trending.comment-weight:5}")
+    private double commentWeight;
+    
+    /**
+     * 每经过一个时间桶的衰减系数
+     */
+    private double bucketDecay;
+    
+    private volatile Bucket current = new Bucket();
+    
+    /**
+     * 已关闭的时间桶，最新的在前
+     */
+    private final Deque<Bucket> closed = new ArrayDeque<>();
+    
+    /**
+     * 文章ID -> 已关闭时间桶衰减后的 [浏览, 评论]
+     */
+    private final Map<Long, double[]> decayed = new HashMap<>();
+    
+    /**
+     * 文章ID -> 已关闭时间桶内的 [浏览, 评论] 原始计数
+     */
+    private final Map<Long, long[]> totals = new HashMap<>();
+    
+    /**
+     * 排行用到的文章信息（不含正文）
+     */
+    private LocalCache<Long, Article> articles;
+    
+    private volatile List<TrendingArticle> snapshot = Collections.emptyList();
+    
+    @PostConstruct
+    public void init() {
+        bucketDecay = Math.pow(0.5, (double) bucketMillis / halfLifeMillis);
+        articles = new LocalCache<>("trending-article", Math.max(1000, size * 4), 600000);
+    }
+    
+    @Override
+    public void recordView(Long articleId) {
+        current.counter(articleId).views.increment();
+    }
+    
+    @Override
+    public Result<?> getTrending(Integer limit) {
+        List<TrendingArticle> list = snapshot;
+        int n = limit == null ? 10 : Math.max(1, Math.min(limit, list.size()));
+        return Result.success(list.size() <= n ? list : list.subList(0, n));
+    }
+    
+    /**
+     * 评论通过审核后计入热度
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentCreated(CommentCreatedEvent event) {
+        current.counter(event.getComment().getArticleId()).comments.increment();
+    }
+    
+    /**
+     * 文章删除后立即移出排行，更新后重新加载文章信息
+     */
+    @TransactionalEventListener
+    public void onArticleChanged(ArticleChangedEvent event) {
+        Long id = event.getArticleId();
+        articles.invalidate(id);
+        if (event.getType() == ArticleChangedEvent.Type.DELETED) {
+            synchronized (this) {
+                decayed.remove(id);
+                totals.remove(id);
+            }
+            List<TrendingArticle> list = new ArrayList<>(snapshot);
+            list.removeIf(item -> item.getId().equals(id));
+            snapshot = Collections.unmodifiableList(list);
+        }
+    }
+    
+    /**
+     * 轮换时间桶：已有聚合值整体衰减一格，刚关闭的桶并入，超出窗口的桶扣除
+     */
+    @Scheduled(fixedRateString = "${article.trending.bucket-duration:60000}",
+               initialDelayString = "${article.trending.bucket-duration:60000}")
+    public synchronized void rotate() {
+        Bucket finished = current;
+        current = new Bucket();
+        
+        for (double[] value : decayed.values()) {
+            value[0] *= bucketDecay;
+            value[1] *= bucketDecay;
+        }
+        for (Map.Entry<Long, Counter> entry : finished.counters.entrySet()) {
+            long views = entry.getValue().views.sum();
+            long comments = entry.getValue().comments.sum();
+            double[] value = decayed.computeIfAbsent(entry.getKey(), k -> new double[2]);
+            value[0] += views * bucketDecay;
+            value[1] += comments * bucketDecay;
+            long[] total = totals.computeIfAbsent(entry.getKey(), k -> new long[2]);
+            total[0] += views;
+            total[1] += comments;
+        }
+        closed.addFirst(finished);
+        
+        if (closed.size() >= bucketCount) {
+            Bucket expired = closed.removeLast();
+            double weight = Math.pow(bucketDecay, bucketCount);
+            for (Map.Entry<Long, Counter> entry : expired.counters.entrySet()) {
+                Long id = entry.getKey();
+                long[] total = totals.get(id);
+                if (total == null) {
+                    continue;
+                }
+                total[0] -= entry.getValue().views.sum();
+                total[1] -= entry.getValue().comments.sum();
+                if (total[0] <= 0 && total[1] <= 0) {
+                    // 窗口内已无计数，顺带清除浮点误差
+                    totals.remove(id);
+                    decayed.remove(id);
+                } else {
+                    double[] value = decayed.get(id);
+                    value[0] = Math.max(0, value[0] - entry.getValue().views.sum() * weight);
+                    value[1] = Math.max(0, value[1] - entry.getValue().comments.sum() * weight);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 计算排行快照
+     */
+    @Scheduled(fixedDelayString = "${article.trending.refresh-interval:10000}")
+    public void refresh() {
+        List<Ranked> ranked = rank(size * 2);
+        
+        Set<Long> missing = new HashSet<>();
+        for (Ranked r : ranked) {
+            if (articles.getIfPresent(r.id) == null) {
+                missing.add(r.id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            QueryWrapper<Article> wrapper = new QueryWrapper<>();
+            wrapper.select("id", "title", "summary", "category", "tags", "status", "created_at")
+                   .in("id", missing)
+                   .eq("status", 1)
+                   .eq("deleted", 0);
+            for (Article article : articleMapper.selectList(wrapper)) {
+                articles.put(article.getId(), article);
+            }
+        }
+        
+        List<TrendingArticle> list = new ArrayList<>(size);
+        for (Ranked r : ranked) {
+            Article article = articles.getIfPresent(r.id);
+            if (article == null || article.getStatus() == null || article.getStatus() != 1) {
+                continue;
+            }
+            TrendingArticle item = new TrendingArticle();
+            BeanUtils.copyProperties(article, item);
+            item.setScore(r.score);
+            item.setRecentViews(r.views);
+            item.setRecentComments(r.comments);
+            list.add(item);
+            if (list.size() >= size) {
+                break;
+            }
+        }
+        snapshot = Collections.unmodifiableList(list);
+    }
+    
+    /**
+     * 取热度最高的n篇文章（小顶堆，按热度倒序返回）
+     */
+    private synchronized List<Ranked> rank(int n) {
+        Map<Long, Counter> live = current.counters;
+        Set<Long> ids = new HashSet<>(decayed.keySet());
+        ids.addAll(live.keySet());
+        
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(n + 1, Comparator.comparingDouble(r -> r.score));
+        for (Long id : ids) {
+            double[] value = decayed.get(id);
+            long[] total = totals.get(id);
+            Counter counter = live.get(id);
+            long liveViews = counter == null ? 0 : counter.views.sum();
+            long liveComments = counter == null ? 0 : counter.comments.sum();
+            double score = viewWeight * ((value == null ? 0 : value[0]) + liveViews)
+                    + commentWeight * ((value == null ? 0 : value[1]) + liveComments);
+            if (score <= 0) {
+                continue;
+            }
+            if (heap.size() < n || score > heap.peek().score) {
+                heap.offer(new Ranked(id, score, (total == null ? 0 : total[0]) + liveViews,
+                        (total == null ? 0 : total[1]) + liveComments));
+                if (heap.size() > n) {
+                    heap.poll();
+                }
+            }
+        }
+        List<Ranked> result = new ArrayList<>(heap);
+        result.sort((a, b) -> Double.compare(b.score, a.score));
+        return result;
+    }
+    
+    private static final class Bucket {
+        private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+        
+        private Counter counter(Long id) {
+            Counter counter = counters.get(id);
+            return counter != null ? counter : counters.computeIfAbsent(id, k -> new Counter());
+        }
+    }
+    
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder comments = new LongAdder();
+    }
+    
+    private static final class Ranked {
+        private final long id;
+        private final double score;
+        private final long views;
+        private final long comments;
+        
+        private Ranked(long id, double score, long views, long comments) {
+            this.id = id;
+            this.score = score;
+            this.views = views;
+            this.comments = comments;
+        }
+    }
+}
@@ -6,20 +6,28 @@ import com.blog.dto.LoginRequest;
 import com.blog.dto.RegisterRequest;
 import com.blog.entity.User;
 import com.blog.mapper.UserMapper;
+import com.blog.security.LoginThrottle;
+import com.blog.service.PasswordService;
 import com.blog.service.UserService;
 import com.blog.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 用户服务实现类
  */
+@Slf4j
 @Service
 public class UserServiceImpl implements UserService {
     
@@ -27,75 +35,108 @@ public class UserServiceImpl implements UserService {
     private UserMapper userMapper;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordService passwordService;
+    
+    @Autowired
+    private LoginThrottle loginThrottle;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    /**
+     * 哈希完成后的写库和签发Token切换到该线程池执行，哈希线程只做BCrypt计算
+     */
+    @Autowired
+    @Qualifier("authExecutor")
+    private AsyncTaskExecutor authExecutor;
+    
     @Override
-    @Transactional
-    public Result<?> register(RegisterRequest request) {
+    public CompletableFuture<Result<?>> register(RegisterRequest request) {
         // 检查用户名是否已存在
         QueryWrapper<User> usernameWrapper = new QueryWrapper<>();
         usernameWrapper.eq("username", request.getUsername()).eq("deleted", 0);
         if (userMapper.selectCount(usernameWrapper) > 0) {
-            return Result.error("用户名已存在");
+            return CompletableFuture.completedFuture(Result.error("用户名已存在"));
         }
         
         // 检查邮箱是否已存在
         QueryWrapper<User> emailWrapper = new QueryWrapper<>();
         emailWrapper.eq("email", request.getEmail()).eq("deleted", 0);
         if (userMapper.selectCount(emailWrapper) > 0) {
-            return Result.error("邮箱已被注册");
+            return CompletableFuture.completedFuture(Result.error("邮箱已被注册"));
         }
         
-        // 创建用户
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setStatus(1);
-        user.setRole("user");
-        user.setCreatedAt(LocalDateTime.now());
-        user.setUpdatedAt(LocalDateTime.now());
-        user.setDeleted(0);
-        
-        userMapper.insert(user);
-        
-        return Result.success("注册成功");
+        return passwordService.encode(request.getPassword()).<Result<?>>thenApplyAsync(encoded -> {
+            // 创建用户
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setEmail(request.getEmail());
+            user.setPassword(encoded);
+            user.setStatus(1);
+            user.setRole("user");
+            user.setCreatedAt(LocalDateTime.now());
+            user.setUpdatedAt(LocalDateTime.now());
+            user.setDeleted(0);
+            
+            userMapper.insert(user);
+            
+            return Result.success("注册成功");
+        }, authExecutor).exceptionally(this::busy);
     }
     
     @Override
-    public Result<?> login(LoginRequest request) {
+    public CompletableFuture<Result<?>> login(LoginRequest request, String clientIp) {
+        // 限流检查在BCrypt校验之前，被限流的请求不占用哈希线程池
+        if (!loginThrottle.tryAttempt(clientIp) || loginThrottle.isLocked(request.getUsername(), clientIp)) {
+            return CompletableFuture.completedFuture(Result.error(429, "登录尝试过于频繁，请稍后再试"));
+        }
+        
         // 查找用户
         User user = userMapper.findByUsername(request.getUsername());
         
         if (user == null) {
-            return Result.error("用户不存在");
+            return CompletableFuture.completedFuture(Result.error("用户不存在"));
         }
         
         if (user.getStatus() == 0) {
-            return Result.error("账号已被禁用");
+            return CompletableFuture.completedFuture(Result.error("账号已被禁用"));
         }
         
         // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            return Result.error("密码错误");
-        }
-        
-        // 生成Token
-        String token = jwtUtil.generateToken(user.getId().toString());
-        
-        // 返回用户信息和Token
-        Map<String, Object> data = new HashMap<>();
-        data.put("token", token);
-        data.put("userId", user.getId());
-        data.put("username", user.getUsername());
-        data.put("email", user.getEmail());
-        data.put("avatar", user.getAvatar());
-        data.put("role", user.getRole());
-        
-        return Result.success("登录成功", data);
+        return passwordService.matches(request.getPassword(), user.getPassword()).<Result<?>>thenApplyAsync(matched -> {
+            if (!matched) {
+                loginThrottle.recordFailure(request.getUsername(), clientIp);
+                return Result.error("密码错误");
+            }
+            loginThrottle.recordSuccess(request.getUsername(), clientIp);
+            
+            if (passwordService.needsRehash(user.getPassword())) {
+                rehash(user.getId(), request.getPassword());
+            }
+            
+            // 生成Token
+            String token = jwtUtil.generateToken(user.getId().toString(), user.getRole());
+            
+            // 返回用户信息和Token
+            Map<String, Object> data = new HashMap<>();
+            data.put("token", token);
+            data.put("userId", user.getId());
+            data.put("username", user.getUsername());
+            data.put("email", user.getEmail());
+            data.put("avatar", user.getAvatar());
+            data.put("role", user.getRole());
+            
+            return Result.success("登录成功", data);
+        }, authExecutor).exceptionally(this::busy);
+    }
+    
+    @Override
+    public Result<?> getAuthStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("password", passwordService.getStats().getData());
+        stats.put("throttle", loginThrottle.stats());
+        stats.put("tokenCache", jwtUtil.cacheStats());
+        return Result.success(stats);
     }
     
     @Override
@@ -119,5 +160,35 @@ public class UserServiceImpl implements UserService {
     public User findByUsername(String username) {
         return userMapper.findByUsername(username);
     }
+    
+    /**
+     * 配置的BCrypt cost调整后，用本次登录的明文密码重新哈希（失败不影响登录）
+     */
+    private void rehash(Long userId, String rawPassword) {
+        passwordService.encode(rawPassword).thenAcceptAsync(encoded -> {
+            User update = new User();
+            update.setId(userId);
+            update.setPassword(encoded);
+            update.setUpdatedAt(LocalDateTime.now());
+            userMapper.updateById(update);
+        }, authExecutor).exceptionally(e -> {
+            log.warn("密码重新哈希失败: userId={}", userId, e);
+            return null;
+        });
+    }
+    
+    /**
+     * 哈希线程池已满时返回系统繁忙，其余异常继续抛出
+     */
+    private Result<?> busy(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return Result.error(503, "系统繁忙，请稍后重试");
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        throw new CompletionException(cause);
+    }
 }
 
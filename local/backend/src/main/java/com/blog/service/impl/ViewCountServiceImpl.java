@@ -0,0 +1,172 @@
+package com.blog.service.impl;
+
+import com.blog.mapper.ArticleMapper;
+import com.blog.service.ViewCountService;
+import com.blog.util.LocalCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 文章浏览量服务实现类
+ *
+ * 浏览请求只在内存中累加（按文章ID分桶），由定时任务批量执行
+ * view_count = view_count + ? 写回，避免每次浏览都整行更新文章。
+ * 每篇文章的待写回和写回中的增量放在同一个计数器里，两者之间的转移与读取互斥，展示值不会重复计算；
+ * 增量全部写回后移除计数器。
+ */
+@Slf4j
+@Service
+public class ViewCountServiceImpl implements ViewCountService {
+    
+    @Autowired
+    private ArticleMapper articleMapper;
+    
+    @Value("${article.view-count.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${article.view-count.high-water-size:100000}")
+    private int highWaterSize;
+    
+    /**
+     * 文章ID -> 尚未写回完成的增量
+     */
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    
+    /**
+     * 已展示过的最大浏览量，保证同一实例内浏览量单调不减；
+     * 浏览时同步加一，调用方传入的持久化值来自缓存而偏旧时展示值也能继续增长。条目数有上限，淘汰最久未访问的文章
+     */
+    private LocalCache<Long, AtomicInteger> highWater;
+    
+    @PostConstruct
+    public void init() {
+        highWater = new LocalCache<>("article-view-high-water", highWaterSize, 0);
+    }
+    
+    @Override
+    public void increment(Long articleId) {
+        // 在桶锁内累加，不会加到刚被移除的计数器上
+        counters.compute(articleId, (k, counter) -> {
+            Counter target = counter != null ? counter : new Counter();
+            target.increment();
+            return target;
+        });
+        AtomicInteger shown = highWater.getIfPresent(articleId);
+        if (shown != null) {
+            shown.getAndUpdate(v -> v == Integer.MAX_VALUE ? v : v + 1);
+        }
+    }
+    
+    @Override
+    public int merge(Long articleId, Integer persisted) {
+        long count = persisted != null ? persisted : 0;
+        Counter counter = counters.get(articleId);
+        if (counter != null) {
+            count += counter.unflushed();
+        }
+        int value = (int) Math.min(count, Integer.MAX_VALUE);
+        return highWater.get(articleId, k -> new AtomicInteger()).accumulateAndGet(value, Math::max);
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${article.view-count.flush-interval:5000}")
+    public synchronized void flush() {
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            long delta = entry.getValue().beginFlush();
+            if (delta == 0) {
+                continue;
+            }
+            batch.put(entry.getKey(), delta);
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+    
+    /**
+     * 应用关闭前写回剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    private void write(Map<Long, Long> batch) {
+        boolean failed = false;
+        try {
+            articleMapper.incrementViewCounts(batch);
+        } catch (Exception e) {
+            // 写回失败时把增量放回待写回，等待下次重试
+            log.warn("浏览量写回失败，{} 篇文章的增量将在下次重试: {}", batch.size(), e.getMessage());
+            failed = true;
+        }
+        boolean retry = failed;
+        batch.forEach((id, delta) -> counters.computeIfPresent(id, (k, counter) -> {
+            counter.endFlush(delta, retry);
+            return counter.isEmpty() ? null : counter;
+        }));
+    }
+    
+    /**
+     * 单篇文章的未写回增量
+     */
+    private static final class Counter {
+        
+        /**
+         * 尚未写回的增量
+         */
+        private long pending;
+        
+        /**
+         * 正在写回中的增量（写回完成前仍计入展示值）
+         */
+        private long flushing;
+        
+        synchronized void increment() {
+            pending++;
+        }
+        
+        synchronized long unflushed() {
+            return pending + flushing;
+        }
+        
+        /**
+         * 待写回的增量整体转入写回中
+         */
+        synchronized long beginFlush() {
+            long delta = pending;
+            pending = 0;
+            flushing += delta;
+            return delta;
+        }
+        
+        /**
+         * 写回结束：成功时扣除，失败时转回待写回
+         */
+        synchronized void endFlush(long delta, boolean failed) {
+            flushing -= delta;
+            if (failed) {
+                pending += delta;
+            }
+        }
+        
+        synchronized boolean isEmpty() {
+            return pending == 0 && flushing == 0;
+        }
+    }
+}
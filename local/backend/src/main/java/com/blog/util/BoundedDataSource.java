@@ -0,0 +1,154 @@
+package com.blog.util;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限制并发借用连接数的数据源包装
+ *
+ * 借连接前先取公平信号量，连接关闭（归还连接池）时释放。许可数与连接池大小一致时，
+ * 大量虚拟线程在信号量上按先后顺序挂起等待，而不是同时涌入连接池的等待队列。
+ */
+public class BoundedDataSource extends DelegatingDataSource implements AutoCloseable {
+    
+    private final Semaphore permits;
+    
+    private final int maxPermits;
+    
+    private final long timeoutMillis;
+    
+    private final LongAdder waited = new LongAdder();
+    
+    private final LongAdder timedOut = new LongAdder();
+    
+    private final LatencyRecorder waitLatency = new LatencyRecorder("datasource-permit-wait", 60000);
+    
+    public BoundedDataSource(DataSource target, int maxPermits, long timeoutMillis) {
+        super(target);
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * 关闭底层连接池
+     */
+    @Override
+    public void close() {
+        DataSource target = getTargetDataSource();
+        if (target instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) target).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("关闭连接池失败", e);
+            }
+        }
+    }
+    
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+    
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+    
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("permits", maxPermits);
+        stats.put("available", permits.availablePermits());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("waited", waited.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("wait", waitLatency.stats());
+        return stats;
+    }
+    
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        waited.increment();
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timedOut.increment();
+                throw new SQLTransientConnectionException("获取数据库连接超时（" + timeoutMillis + "ms）");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("获取数据库连接被中断", e);
+        } finally {
+            waitLatency.record(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 包装连接，关闭时释放许可（重复关闭只释放一次）
+     */
+    private Connection guard(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+}
@@ -1,12 +1,21 @@
 package com.blog.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
 
 /**
  * JWT工具类
@@ -14,21 +23,41 @@ import java.util.Date;
 @Component
 public class JwtUtil {
     
+    private static final String ROLE_CLAIM = "role";
+    
     @Value("${jwt.secret}")
     private String secret;
     
     @Value("${jwt.expire}")
     private Long expire;
     
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheSize;
+    
+    @Value("${jwt.cache.ttl:600000}")
+    private long cacheTtl;
+    
+    /**
+     * 已验签的Token（key为Token的SHA-256），命中时不再重复解析和HMAC校验；
+     * 条目最长保留cacheTtl，读取时另按Token自身的过期时间判断
+     */
+    private LocalCache<String, VerifiedToken> verifiedTokens;
+    
+    @PostConstruct
+    public void init() {
+        verifiedTokens = new LocalCache<>("jwt-verified", cacheSize, cacheTtl);
+    }
+    
     /**
-     * 生成Token
+     * 生成Token，角色写入role声明（角色变更后需重新登录才生效）
      */
-    public String generateToken(String userId) {
+    public String generateToken(String userId, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expire);
         
         return Jwts.builder()
                 .setSubject(userId)
+                .claim(ROLE_CLAIM, role)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(SignatureAlgorithm.HS512, secret)
@@ -39,12 +68,7 @@ public class JwtUtil {
      * 从Token中获取用户ID
      */
     public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(secret)
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return parseClaims(token).getSubject();
     }
     
     /**
@@ -52,11 +76,71 @@ public class JwtUtil {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
+    
+    /**
+     * 验证Token并返回其中的用户信息（优先读取已验签缓存），无效或已过期返回null
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified == null) {
+            try {
+                Claims claims = parseClaims(token);
+                Date expiration = claims.getExpiration();
+                verified = new VerifiedToken(Long.valueOf(claims.getSubject()), claims.get(ROLE_CLAIM, String.class),
+                        expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+            } catch (JwtException | IllegalArgumentException e) {
+                return null;
+            }
+            verifiedTokens.put(key, verified);
+        }
+        if (verified.getExpiresAt() <= System.currentTimeMillis()) {
+            verifiedTokens.invalidate(key);
+            return null;
+        }
+        return verified;
+    }
+    
+    /**
+     * 已验签Token缓存统计
+     */
+    public Map<String, Object> cacheStats() {
+        return verifiedTokens.stats();
+    }
+    
+    private Claims parseClaims(String token) {
+        return Jwts.parser()
+                .setSigningKey(secret)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+    
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * 验签通过的Token信息
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedToken {
+        private final Long userId;
+        private final String role;
+        private final long expiresAt;
+    }
 }
-
@@ -0,0 +1,145 @@
+package com.blog.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟分布统计（对数分桶直方图，相邻桶上界相差约25%）
+ *
+ * 分位数只统计最近一到两个窗口内的样本，旧窗口在记录时轮换淘汰；
+ * 分位数取所在桶的上界，误差不超过25%。
+ */
+public class LatencyRecorder {
+    
+    private static final long[] BOUNDS_MICROS;
+    
+    static {
+        // 1微秒 ~ 约10分钟
+        List<Long> bounds = new ArrayList<>();
+        long bound = 1;
+        while (bound < 600_000_000L) {
+            bounds.add(bound);
+            bound = Math.max(bound + 1, bound * 5 / 4);
+        }
+        bounds.add(Long.MAX_VALUE);
+        BOUNDS_MICROS = bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    private final String name;
+    
+    private final long windowMillis;
+    
+    private volatile Window current;
+    
+    private volatile Window previous;
+    
+    private final LongAdder count = new LongAdder();
+    
+    private final LongAdder totalMicros = new LongAdder();
+    
+    /**
+     * @param name         名称（用于统计）
+     * @param windowMillis 分位数统计窗口，单位毫秒
+     */
+    public LatencyRecorder(String name, long windowMillis) {
+        this.name = name;
+        this.windowMillis = windowMillis;
+        this.current = new Window(System.currentTimeMillis());
+        this.previous = new Window(0);
+    }
+    
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时，单位纳秒
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        count.increment();
+        totalMicros.add(micros);
+        window().buckets.incrementAndGet(bucketOf(micros));
+    }
+    
+    /**
+     * 延迟统计，分位数单位为毫秒
+     */
+    public Map<String, Object> stats() {
+        Window cur = window();
+        Window prev = previous;
+        long[] merged = new long[BOUNDS_MICROS.length];
+        long samples = 0;
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = cur.buckets.get(i) + prev.buckets.get(i);
+            samples += merged[i];
+        }
+        long total = count.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("count", total);
+        stats.put("meanMs", total == 0 ? 0.0 : totalMicros.sum() / 1000.0 / total);
+        stats.put("windowSamples", samples);
+        stats.put("p50Ms", percentile(merged, samples, 0.50));
+        stats.put("p95Ms", percentile(merged, samples, 0.95));
+        stats.put("p99Ms", percentile(merged, samples, 0.99));
+        return stats;
+    }
+    
+    private Window window() {
+        Window cur = current;
+        long now = System.currentTimeMillis();
+        if (now - cur.start < windowMillis) {
+            return cur;
+        }
+        synchronized (this) {
+            if (current == cur) {
+                // 超过两个窗口没有样本时旧数据全部丢弃
+                previous = now - cur.start < 2 * windowMillis ? cur : new Window(0);
+                current = new Window(now);
+            }
+            return current;
+        }
+    }
+    
+    private static double percentile(long[] buckets, long samples, double quantile) {
+        if (samples == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(samples * quantile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long bound = BOUNDS_MICROS[i] == Long.MAX_VALUE ? BOUNDS_MICROS[i - 1] : BOUNDS_MICROS[i];
+                return bound / 1000.0;
+            }
+        }
+        return BOUNDS_MICROS[BOUNDS_MICROS.length - 2] / 1000.0;
+    }
+    
+    private static int bucketOf(long micros) {
+        int low = 0;
+        int high = BOUNDS_MICROS.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS_MICROS[mid] >= micros) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    private static final class Window {
+        private final long start;
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length);
+        
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
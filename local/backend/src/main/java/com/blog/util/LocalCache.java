@@ -0,0 +1,259 @@
+package com.blog.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 本地缓存：容量上限（LRU淘汰）+ 过期时间 + 未命中时单飞加载
+ *
+ * 同一个key并发未命中时只执行一次加载，其余调用等待同一结果，避免缓存击穿。
+ * 加载结果为null或加载异常时不缓存。加载期间若发生过失效（invalidate/invalidateAll），
+ * 加载结果只返回给调用方而不写入缓存，避免把失效前读到的旧值写回。
+ * 创建的实例登记在 {@link #instances()} 中（弱引用），由 {@code LocalCacheMetrics} 统一注册指标。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public final class LocalCache<K, V> {
+    
+    /**
+     * 已创建的缓存实例，不阻止缓存被回收
+     */
+    private static final Set<LocalCache<?, ?>> INSTANCES = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+    
+    private final String name;
+    
+    private final int maxSize;
+    
+    private final long ttlMillis;
+    
+    private final LinkedHashMap<K, Entry<V>> entries;
+    
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    
+    /**
+     * 失效代数，每次失效加一；加载前后代数不同说明加载期间发生过失效
+     */
+    private final AtomicLong generation = new AtomicLong();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    /**
+     * @param name      缓存名称（用于统计）
+     * @param maxSize   最大条目数
+     * @param ttlMillis 写入后过期时间，单位毫秒，<=0 表示不过期
+     */
+    public LocalCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LocalCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        INSTANCES.add(this);
+    }
+    
+    /**
+     * 当前存活的缓存实例
+     */
+    public static List<LocalCache<?, ?>> instances() {
+        synchronized (INSTANCES) {
+            return new ArrayList<>(INSTANCES);
+        }
+    }
+    
+    /**
+     * 读取缓存，不存在或已过期返回null（计入命中/未命中统计）
+     */
+    public V getIfPresent(K key) {
+        V value = peek(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+    
+    /**
+     * 读取缓存，未命中时调用loader加载并写入缓存（同一key并发加载只执行一次）
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            // 获得加载权后再检查一次，避免刚加载完成的key被重复加载
+            value = peek(key);
+            if (value == null) {
+                loads.increment();
+                long startGeneration = generation.get();
+                value = loader.apply(key);
+                if (value != null) {
+                    putIfGeneration(key, value, startGeneration);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+    
+    public void put(K key, V value) {
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expireAt));
+        }
+    }
+    
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+        // 失效后的读取不再等待进行中的旧加载
+        loading.remove(key);
+    }
+    
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+        loading.clear();
+    }
+    
+    /**
+     * 当前失效代数，供在加载过程中还要写其他存储的调用方判断加载期间是否发生过失效
+     */
+    public long generation() {
+        return generation.get();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("loads", loads.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+    
+    /**
+     * 仅当期间没有发生失效时写入
+     */
+    private void putIfGeneration(K key, V value, long expectedGeneration) {
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        synchronized (entries) {
+            if (generation.get() == expectedGeneration) {
+                entries.put(key, new Entry<>(value, expireAt));
+            }
+        }
+    }
+    
+    private V peek(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expireAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+    
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+    
+    private static final class Entry<V> {
+        private final V value;
+        private final long expireAt;
+        
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.blog.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按key的固定窗口计数限流
+ *
+ * 过期窗口在下次访问时重置，长期不访问的key需定时调用evictExpired清理。
+ */
+public class RateLimiter {
+    
+    private final int limit;
+    
+    private final long windowMillis;
+    
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    
+    /**
+     * @param limit        每个窗口内允许的次数
+     * @param windowMillis 窗口长度，单位毫秒
+     */
+    public RateLimiter(int limit, long windowMillis) {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+    
+    /**
+     * 计数加一，超过限额返回false
+     */
+    public boolean tryAcquire(String key) {
+        return current(key).count.incrementAndGet() <= limit;
+    }
+    
+    /**
+     * 当前窗口内是否已达到限额（不计数）
+     */
+    public boolean isExhausted(String key) {
+        Window window = windows.get(key);
+        return window != null && !window.isExpired(System.currentTimeMillis(), windowMillis)
+                && window.count.get() >= limit;
+    }
+    
+    public void reset(String key) {
+        windows.remove(key);
+    }
+    
+    public int size() {
+        return windows.size();
+    }
+    
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        windows.values().removeIf(w -> w.isExpired(now, windowMillis));
+    }
+    
+    private Window current(String key) {
+        long now = System.currentTimeMillis();
+        return windows.compute(key, (k, w) -> w == null || w.isExpired(now, windowMillis) ? new Window(now) : w);
+    }
+    
+    private static final class Window {
+        private final long start;
+        private final AtomicInteger count = new AtomicInteger();
+        
+        private Window(long start) {
+            this.start = start;
+        }
+        
+        private boolean isExpired(long now, long windowMillis) {
+            return now - start >= windowMillis;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.blog.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离数据源
+ *
+ * 只读事务（@Transactional(readOnly = true)）中的查询路由到从库，其余走主库。以下情况只读查询也走主库：
+ * 从库不可用或复制延迟超过上限；当前用户在窗口期内提交过写事务（读己之写）；窗口期内调用过 {@link #fence()}。
+ * 需包在 LazyConnectionDataSourceProxy 中使用，真正借连接推迟到第一条语句执行时，此时事务的只读标记已经设置。
+ */
+@Slf4j
+public final class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+    
+    private final DataSource replica;
+    
+    private final long maxLagSeconds;
+    
+    private final String lagQuery;
+    
+    private final long stickyWindowMillis;
+    
+    private final Supplier<Object> currentUser;
+    
+    /**
+     * 最近提交过写事务的用户
+     */
+    private final LocalCache<Object, Boolean> recentWriters;
+    
+    /**
+     * 事务资源的键，绑定后表示当前写事务已注册过提交回调
+     */
+    private final Object writerMarkKey = new Object();
+    
+    /**
+     * 在此时间之前的只读查询全部走主库
+     */
+    private volatile long fenceUntil;
+    
+    /**
+     * 首次检查完成前视为不可用
+     */
+    private volatile boolean replicaAvailable;
+    
+    /**
+     * 最近一次检查到的复制延迟（秒），-1表示未知
+     */
+    private volatile long replicaLag = -1;
+    
+    private volatile boolean checked;
+    
+    private final AtomicBoolean checking = new AtomicBoolean();
+    
+    /**
+     * 从库不可达时借连接要等到超时，检查放在单独的线程中，不占用定时任务线程
+     */
+    private final ExecutorService checkExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "db-replica-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final LongAdder replicaReads = new LongAdder();
+    
+    private final LongAdder stickyReads = new LongAdder();
+    
+    private final LongAdder fallbackReads = new LongAdder();
+    
+    /**
+     * @param primary            主库
+     * @param replica            从库
+     * @param maxLagSeconds      允许的最大复制延迟，单位秒
+     * @param lagQuery           查询复制延迟的语句，为空时只检查连通性
+     * @param stickyWindowMillis 写事务提交后该用户的只读查询走主库的时长，应大于最大复制延迟与检查间隔之和
+     * @param currentUser        当前用户标识，匿名时返回null
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long maxLagSeconds, String lagQuery,
+                                      long stickyWindowMillis, Supplier<Object> currentUser) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+        this.stickyWindowMillis = stickyWindowMillis;
+        this.currentUser = currentUser;
+        this.recentWriters = new LocalCache<>("datasource-sticky-users", 10000, stickyWindowMillis);
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(Target.PRIMARY, primary);
+        targets.put(Target.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+    
+    /**
+     * 之后一个窗口期内的只读查询全部走主库，用于数据变更后避免从库的旧数据回填缓存
+     */
+    public void fence() {
+        fenceUntil = System.currentTimeMillis() + stickyWindowMillis;
+    }
+    
+    /**
+     * 检查从库连通性和复制延迟，由定时任务调用；上一次检查未结束时跳过
+     */
+    public void checkReplica() {
+        if (!checking.compareAndSet(false, true)) {
+            return;
+        }
+        checkExecutor.execute(() -> {
+            try {
+                doCheckReplica();
+            } finally {
+                checking.set(false);
+            }
+        });
+    }
+    
+    @Override
+    public void close() {
+        checkExecutor.shutdownNow();
+    }
+    
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+    
+    public long getReplicaLag() {
+        return replicaLag;
+    }
+    
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+    
+    public long getStickyReads() {
+        return stickyReads.sum();
+    }
+    
+    public long getFallbackReads() {
+        return fallbackReads.sum();
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                markWriterOnCommit();
+            }
+            return Target.PRIMARY;
+        }
+        if (!replicaAvailable) {
+            fallbackReads.increment();
+            return Target.PRIMARY;
+        }
+        if (System.currentTimeMillis() < fenceUntil || isRecentWriter()) {
+            stickyReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+    
+    private void doCheckReplica() {
+        long lag;
+        try (Connection connection = replica.getConnection()) {
+            lag = lagQuery == null || lagQuery.isEmpty() ? 0 : queryLag(connection);
+        } catch (SQLException e) {
+            log.debug("从库检查失败", e);
+            lag = -1;
+        }
+        boolean available = lag >= 0 && lag <= maxLagSeconds;
+        if (available != replicaAvailable || !checked) {
+            if (available) {
+                log.info("从库可用，复制延迟 {}s", lag);
+            } else {
+                log.warn("从库不可用或复制延迟过大（{}），只读查询改走主库", lag < 0 ? "未知" : lag + "s");
+            }
+        }
+        replicaLag = lag;
+        replicaAvailable = available;
+        checked = true;
+    }
+    
+    private boolean isRecentWriter() {
+        Object user = currentUser.get();
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+    
+    /**
+     * 写事务提交后记录当前用户，窗口期内该用户的只读查询走主库
+     *
+     * 同一事务中每次借连接都会路由一次，用事务资源标记只注册一次回调；事务挂起时解绑标记，
+     * 内层的独立事务会注册自己的回调。
+     */
+    private void markWriterOnCommit() {
+        if (TransactionSynchronizationManager.hasResource(writerMarkKey)) {
+            return;
+        }
+        Object user = currentUser.get();
+        if (user == null) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writerMarkKey, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writerMarkKey);
+            }
+            
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(writerMarkKey, Boolean.TRUE);
+            }
+            
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writerMarkKey);
+            }
+        });
+    }
+    
+    /**
+     * 读取复制延迟：优先取 Seconds_Behind_Source / Seconds_Behind_Master 列，没有时取第一列（自定义心跳查询）。
+     * 没有结果行（未配置复制）或值为NULL（复制线程已停止）时返回-1
+     */
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return -1;
+            }
+            int column = 1;
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                String label = metaData.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                    column = i;
+                    break;
+                }
+            }
+            long lag = resultSet.getLong(column);
+            return resultSet.wasNull() ? -1 : lag;
+        }
+    }
+}
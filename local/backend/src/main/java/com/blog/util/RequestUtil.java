@@ -0,0 +1,28 @@
+package com.blog.util;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 请求工具类
+ */
+public final class RequestUtil {
+    
+    private RequestUtil() {
+    }
+    
+    /**
+     * 获取客户端IP（优先取nginx设置的 X-Real-IP / X-Forwarded-For）
+     */
+    public static String getClientIp(HttpServletRequest request) {
+        String ip = request.getHeader("X-Real-IP");
+        if (ip != null && !ip.isEmpty()) {
+            return ip;
+        }
+        ip = request.getHeader("X-Forwarded-For");
+        if (ip != null && !ip.isEmpty()) {
+            int idx = ip.indexOf(',');
+            return (idx > 0 ? ip.substring(0, idx) : ip).trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
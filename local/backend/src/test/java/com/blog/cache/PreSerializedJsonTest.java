@@ -0,0 +1,115 @@
+package com.blog.cache;
+
+import com.blog.common.Result;
+import com.blog.entity.Article;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 预序列化模板的输出应与Jackson直接序列化逐字节一致，gzip输出解压后与原文一致
+ */
+class PreSerializedJsonTest {
+    
+    private static final String[] SLOTS = {"\"viewCount\":" + Integer.MIN_VALUE, "\"timestamp\":" + Long.MIN_VALUE};
+    
+    private static final int[] VIEW_COUNTS = {0, 1, 9, 10, 99, 255, 256, 65535, 65536, 123456789, Integer.MAX_VALUE};
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    
+    @Test
+    void identityAndGzipOutputMatchJackson() throws IOException {
+        Article article = article("性能优化 <实践> & \"引号\"\n".repeat(20));
+        PreSerializedJson template = compile(article);
+        long timestamp = 1792321664890L;
+        
+        for (int viewCount : VIEW_COUNTS) {
+            PreSerializedJson.Bound bound = template.bind(viewCount, timestamp);
+            byte[] expected = jackson(article, viewCount, timestamp);
+            
+            byte[] identity = write(bound, false);
+            assertThat(identity).isEqualTo(expected);
+            assertThat(bound.contentLength(false)).isEqualTo(identity.length);
+            
+            byte[] gzip = write(bound, true);
+            assertThat(bound.contentLength(true)).isEqualTo(gzip.length);
+            assertThat(gunzip(gzip)).isEqualTo(expected);
+        }
+    }
+    
+    @Test
+    void largeBodyRoundTrips() throws IOException {
+        // 正文远大于压缩缓冲区初始大小，且不可压缩的部分较多
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append(Integer.toHexString(i * 0x9E3779B1)).append('字');
+        }
+        Article article = article(content.toString());
+        PreSerializedJson.Bound bound = compile(article).bind(42, 1L);
+        byte[] expected = jackson(article, 42, 1L);
+        
+        assertThat(write(bound, false)).isEqualTo(expected);
+        assertThat(gunzip(write(bound, true))).isEqualTo(expected);
+    }
+    
+    @Test
+    void acceptsGzip() {
+        assertThat(PreSerializedJson.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PreSerializedJson.acceptsGzip("br;q=1.0, gzip;q=0.8")).isTrue();
+        assertThat(PreSerializedJson.acceptsGzip("*")).isTrue();
+        assertThat(PreSerializedJson.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PreSerializedJson.acceptsGzip("identity")).isFalse();
+        assertThat(PreSerializedJson.acceptsGzip(null)).isFalse();
+    }
+    
+    private Article article(String content) {
+        Article article = new Article();
+        article.setId(7L);
+        article.setTitle("预序列化测试");
+        article.setContent(content);
+        article.setSummary("摘要");
+        article.setAuthorId(3L);
+        article.setCategory("技术");
+        article.setTags("Java,JSON");
+        article.setStatus(1);
+        article.setViewCount(0);
+        article.setCreatedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+        article.setUpdatedAt(LocalDateTime.of(2026, 6, 7, 8, 9, 10));
+        return article;
+    }
+    
+    private PreSerializedJson compile(Article article) throws IOException {
+        return PreSerializedJson.compile(article.getUpdatedAt(),
+                jackson(article, Integer.MIN_VALUE, Long.MIN_VALUE), SLOTS, 6);
+    }
+    
+    private byte[] jackson(Article source, int viewCount, long timestamp) throws IOException {
+        Article article = new Article();
+        BeanUtils.copyProperties(source, article);
+        article.setViewCount(viewCount);
+        Result<Article> result = Result.success(article);
+        result.setTimestamp(timestamp);
+        return objectMapper.writeValueAsBytes(result);
+    }
+    
+    private static byte[] write(PreSerializedJson.Bound bound, boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bound.writeTo(out, gzip);
+        return out.toByteArray();
+    }
+    
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.blog.service.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 流式对话的首字节时间：上游的第一个token应立即转发给客户端，而不是等整个回复生成完
+ *
+ * 以JDK HttpServer模拟vLLM的流式接口：第一个token立即返回，之后停顿 {@link #TOKEN_GAP_MILLIS} 再返回其余部分。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ai.vllm.api-key=your-api-key-here",
+        "spring.datasource.url=jdbc:h2:mem:ai-stream;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=file:src/loadtest/resources/loadtest/schema.sql",
+        "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+        "logging.level.com.blog=info",
+        "logging.file.name=target/test-logs/blog-backend.log"
+})
+class AIServiceImplStreamTest {
+    
+    private static final long TOKEN_GAP_MILLIS = 1500;
+    
+    private static HttpServer upstream;
+    
+    @LocalServerPort
+    private int port;
+    
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/v1/chat/completions", AIServiceImplStreamTest::stream);
+        upstream.createContext("/health", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.start();
+    }
+    
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+    
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("ai.vllm.url",
+                () -> "http://127.0.0.1:" + upstream.getAddress().getPort() + "/v1/chat/completions");
+    }
+    
+    @Test
+    void forwardsFirstTokenBeforeUpstreamFinishes() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/ai/chat/stream"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"你好\"}"))
+                .build();
+        
+        long start = System.nanoTime();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        
+        long firstToken = -1;
+        long done = -1;
+        List<String> contents = new ArrayList<>();
+        String event = null;
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext() && done < 0) {
+                String line = iterator.next();
+                if (line.isEmpty()) {
+                    event = null;
+                } else if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                } else if (line.startsWith("data:") && event == null) {
+                    // 未命名的事件是转发的上游数据块（session、queue等事件带名称）
+                    String data = line.substring(5).trim();
+                    if ("[DONE]".equals(data)) {
+                        done = System.nanoTime() - start;
+                    } else if (data.contains("\"content\"")) {
+                        contents.add(data);
+                        if (firstToken < 0) {
+                            firstToken = System.nanoTime() - start;
+                        }
+                    }
+                }
+            }
+        }
+        
+        assertThat(contents).hasSize(2);
+        assertThat(contents.get(0)).contains("第一个");
+        assertThat(done).isPositive();
+        // 首个token在上游停顿前到达，说明响应没有被缓冲到流结束
+        assertThat(Duration.ofNanos(done - firstToken)).isGreaterThan(Duration.ofMillis(TOKEN_GAP_MILLIS - 500));
+    }
+    
+    private static void stream(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            writeEvent(out, chunk("第一个"));
+            Thread.sleep(TOKEN_GAP_MILLIS);
+            writeEvent(out, chunk("token"));
+            writeEvent(out, "{\"choices\":[],\"usage\":{\"prompt_tokens\":5,\"completion_tokens\":2}}");
+            writeEvent(out, "[DONE]");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static String chunk(String content) {
+        return "{\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + content + "\"},\"finish_reason\":null}]}";
+    }
+    
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -101,9 +101,9 @@ export const articleAPI = {
     return api.get('/articles', { params })
   },
   
-  // 获取所有文章
-  getArticleList() {
-    return api.get('/articles/list')
+  // 游标分页获取文章列表（params: cursor, size, category）
+  getArticleList(params) {
+    return api.get('/articles/list', { params })
   },
   
   // 获取文章详情
@@ -112,25 +112,25 @@ export const articleAPI = {
   },
   
   // 创建文章
-  createArticle(data, userId) {
-    return api.post('/articles', data, { params: { userId } })
+  createArticle(data) {
+    return api.post('/articles', data)
   },
   
   // 更新文章
-  updateArticle(id, data, userId) {
-    return api.put(`/articles/${id}`, data, { params: { userId } })
+  updateArticle(id, data) {
+    return api.put(`/articles/${id}`, data)
   },
   
   // 删除文章
-  deleteArticle(id, userId) {
-    return api.delete(`/articles/${id}`, { params: { userId } })
+  deleteArticle(id) {
+    return api.delete(`/articles/${id}`)
   }
 }
 
 export const aiAPI = {
   // AI对话
-  chat(message) {
-    return api.post('/ai/chat', { message })
+  chat(message, sessionId, sessionToken) {
+    return api.post('/ai/chat', { message, sessionId, sessionToken })
   },
   
   // 检查AI服务状态